@@ -1,3 +1,7 @@
+import groovy.json.JsonSlurper
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
 plugins {
     id("com.android.application")
     id("org.jetbrains.kotlin.android")
@@ -47,6 +51,31 @@ android {
             excludes += "/META-INF/{AL2.0,LGPL2.1}"
         }
     }
+    androidResources {
+        noCompress += "pack" // knowledge.pack is memory-mapped straight from the APK
+    }
+}
+
+// Validates the knowledge assets and compiles them into knowledge.pack (read by KnowledgePack.java)
+val compileKnowledgePack = tasks.register<CompileKnowledgePack>("compileKnowledgePack") {
+    diseasesFile.set(layout.projectDirectory.file("src/main/assets/diseases.json"))
+    labelsFile.set(layout.projectDirectory.file("src/main/assets/labels.txt"))
+    qaFile.set(layout.projectDirectory.file("src/main/assets/plant_qa.json"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(compileKnowledgePack, CompileKnowledgePack::outputDir)
+    }
+}
+
+// KnowledgePackTest reads the pack this build generates rather than one written by a copy of the task
+tasks.withType<Test>().configureEach {
+    val knowledgePack = compileKnowledgePack.flatMap { it.outputDir.file("knowledge.pack") }
+    inputs.file(knowledgePack)
+    doFirst {
+        systemProperty("knowledgePack", knowledgePack.get().asFile.absolutePath)
+    }
 }
 
 dependencies {
@@ -62,6 +91,7 @@ dependencies {
     implementation("com.google.code.gson:gson:2.10.1")
     implementation ("org.tensorflow:tensorflow-lite:2.16.1")
     implementation ("org.tensorflow:tensorflow-lite-support:0.4.3")
+    implementation ("org.tensorflow:tensorflow-lite-metadata:0.4.3")
     implementation ("org.tensorflow:tensorflow-lite-gpu:2.13.0")
     implementation ("com.github.dhaval2404:imagepicker:2.1")
     implementation(platform("androidx.compose:compose-bom:2023.08.00"))
@@ -73,4 +103,106 @@ dependencies {
     androidTestImplementation("androidx.compose.ui:ui-test-junit4")
     debugImplementation("androidx.compose.ui:ui-tooling")
     debugImplementation("androidx.compose.ui:ui-test-manifest")
-}
\ No newline at end of file
+}
+
+/**
+ * Compiles diseases.json, labels.txt and plant_qa.json into one binary pack with a deduplicated
+ * UTF-8 string table and fixed-size per-class records, so the app needs no JSON parsing.
+ * Crop and healthy flag default to what the Crop___Condition label says unless an entry sets them.
+ * Fails the build when a label has no disease entry or an entry is missing a field.
+ * The layout is documented in KnowledgePack.java; keep the two in step.
+ */
+abstract class CompileKnowledgePack : DefaultTask() {
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val diseasesFile: RegularFileProperty
+
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val labelsFile: RegularFileProperty
+
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val qaFile: RegularFileProperty
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun compile() {
+        val diseases = parseObject(diseasesFile.get().asFile)
+        val qa = parseObject(qaFile.get().asFile)
+        val labels = labelsFile.get().asFile.readLines(Charsets.UTF_8).map { it.trim() }.filter { it.isNotEmpty() }
+
+        // Validation: every label needs a complete disease entry
+        val problems = mutableListOf<String>()
+        labels.groupingBy { it }.eachCount().filterValues { it > 1 }.keys.forEach {
+            problems += "labels.txt: duplicate label '$it'"
+        }
+        for (label in labels) {
+            val entry = diseases[label] as? Map<*, *>
+            if (entry == null) {
+                problems += "labels.txt: '$label' has no entry in diseases.json"
+                continue
+            }
+            for (field in DISEASE_FIELDS) {
+                if (entry[field] !is String) problems += "diseases.json: '$label' is missing \"$field\""
+            }
+        }
+        for ((question, answer) in qa) {
+            if (answer !is String) problems += "plant_qa.json: answer to '$question' is not a string"
+        }
+        if (problems.isNotEmpty()) {
+            throw GradleException("Invalid knowledge assets:\n" + problems.joinToString("\n"))
+        }
+
+        // String table, each distinct string stored once
+        val ids = LinkedHashMap<String, Int>()
+        fun intern(value: String): Int = ids.getOrPut(value) { ids.size }
+        val classIds = labels.flatMap { label ->
+            val entry = diseases.getValue(label) as Map<*, *>
+            val crop = entry["crop"] as? String ?: label.substringBefore("___").replace('_', ' ')
+            val healthy = entry["healthy"] as? Boolean ?: label.substringAfter("___").equals("healthy", ignoreCase = true)
+            listOf(intern(label)) + DISEASE_FIELDS.map { intern(entry[it] as String) } +
+                    listOf(intern(crop), if (healthy) FLAG_HEALTHY else 0)
+        }
+        val qaIds = qa.flatMap { (question, answer) -> listOf(intern(question), intern(answer as String)) }
+        val encoded = ids.keys.map { it.toByteArray(Charsets.UTF_8) }
+
+        val size = HEADER_BYTES + (classIds.size + qaIds.size) * 4 + (encoded.size + 1) * 4 + encoded.sumOf { it.size }
+        val buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN)
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(labels.size).putInt(qa.size).putInt(encoded.size)
+        classIds.forEach { buffer.putInt(it) }
+        qaIds.forEach { buffer.putInt(it) }
+        var offset = 0
+        for (bytes in encoded) {
+            buffer.putInt(offset)
+            offset += bytes.size
+        }
+        buffer.putInt(offset)
+        encoded.forEach { buffer.put(it) }
+
+        val out = outputDir.get().file("knowledge.pack").asFile
+        out.parentFile.mkdirs()
+        out.writeBytes(buffer.array())
+        logger.info("knowledge.pack: ${labels.size} classes, ${qa.size} answers, ${encoded.size} strings, $size bytes")
+    }
+
+    private fun parseObject(file: File): Map<String, Any?> {
+        val parsed = try {
+            JsonSlurper().parse(file, "UTF-8")
+        } catch (e: Exception) {
+            throw GradleException("${file.name}: ${e.message}", e)
+        }
+        @Suppress("UNCHECKED_CAST")
+        return parsed as? Map<String, Any?> ?: throw GradleException("${file.name} must be a JSON object")
+    }
+
+    private companion object {
+        const val MAGIC = 0x4C534B50 // "LSKP"
+        const val VERSION = 2
+        const val HEADER_BYTES = 20
+        const val FLAG_HEALTHY = 1
+        val DISEASE_FIELDS = listOf("description", "symptoms", "treatment", "tips")
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.leafsmart;
+
+/**
+ * Compact storage form of an activation map for the history database.
+ * Values in 0..1 are quantized to one unsigned byte per cell, which is also the index into the
+ * heatmap colormap, so a 7x7 map takes 49 bytes instead of a full-resolution overlay image.
+ */
+public final class ActivationMapCodec {
+
+    private ActivationMapCodec() {}
+
+    // One byte per cell, value * 255 rounded; values outside 0..1 are clamped
+    public static byte[] quantize(float[] map) {
+        byte[] bytes = new byte[map.length];
+        for (int i = 0; i < map.length; i++) {
+            float value = map[i];
+            int q = value > 0f ? (int) (Math.min(value, 1f) * 255f + 0.5f) : 0; // NaN maps to 0 as well
+            bytes[i] = (byte) q;
+        }
+        return bytes;
+    }
+
+    // Map values back in 0..1, within 1/510 of the originals
+    public static float[] dequantize(byte[] bytes) {
+        float[] map = new float[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            map[i] = (bytes[i] & 0xFF) / 255f;
+        }
+        return map;
+    }
+}
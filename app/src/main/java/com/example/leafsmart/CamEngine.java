@@ -0,0 +1,138 @@
+package com.example.leafsmart;
+
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Class activation maps from the classifier's final dense layer.
+ * The weights are read once per model load, from the classifier_weights.bin sidecar asset if one is
+ * shipped (little-endian int32 class count, int32 channel count, then float32 weights per class row),
+ * otherwise from the model itself. Without either every class falls back to weighting channels by
+ * their mean activation, which is logged once.
+ */
+public final class CamEngine {
+    static final String WEIGHTS_FILE = "classifier_weights.bin";
+    private static final String TAG = "CamEngine";
+    private static volatile boolean fallbackLogged;
+
+    private final float[] classWeights; // Flattened [class][channel], null when not available
+    private final int numClasses;
+    private final int channels;
+
+    CamEngine(float[] classWeights, int numClasses, int channels) {
+        this.classWeights = classWeights;
+        this.numClasses = numClasses;
+        this.channels = channels;
+    }
+
+    // Reads the dense-layer weights from the sidecar or the model, or returns the mean-activation fallback
+    public static CamEngine load(AssetManager assets, ByteBuffer model, int classes, int channels)
+            throws IOException {
+        CamEngine sidecar = loadSidecar(assets);
+        if (sidecar != null) return sidecar;
+
+        float[] weights = null;
+        try {
+            weights = DenseWeightsReader.read(model, classes, channels);
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // Not a model layout we understand
+        }
+        if (weights != null) return new CamEngine(weights, classes, channels);
+
+        if (!fallbackLogged) {
+            fallbackLogged = true;
+            Log.w(TAG, "No " + classes + "x" + channels + " classifier weights found, heatmaps use mean activations");
+        }
+        return new CamEngine(null, 0, 0);
+    }
+
+    // Weights from the classifier_weights.bin asset, or null if it is not shipped
+    private static CamEngine loadSidecar(AssetManager assets) throws IOException {
+        byte[] bytes;
+        try (InputStream in = assets.open(WEIGHTS_FILE)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            bytes = out.toByteArray();
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int classes = buffer.getInt();
+        int channelCount = buffer.getInt();
+        if (classes <= 0 || channelCount <= 0 || buffer.remaining() < classes * channelCount * 4) {
+            throw new IOException("Malformed " + WEIGHTS_FILE);
+        }
+        float[] weights = new float[classes * channelCount];
+        buffer.asFloatBuffer().get(weights);
+        return new CamEngine(weights, classes, channelCount);
+    }
+
+    // True when maps come from the classifier weights rather than the mean-activation fallback
+    public boolean isClassSpecific() {
+        return classWeights != null;
+    }
+
+    // Computes one normalised map per requested class; reads the features in place, e.g. the model's output buffer
+    public float[][] computeMaps(FloatBuffer features, int cells, int featureChannels, int[] classIndices) {
+        float[][] maps = new float[classIndices.length][];
+        float[] fallbackWeights = null;
+        for (int i = 0; i < classIndices.length; i++) {
+            maps[i] = new float[cells];
+            int classIndex = classIndices[i];
+            if (isClassSpecific() && featureChannels == channels && classIndex >= 0 && classIndex < numClasses) {
+                project(features, cells, featureChannels, classWeights, classIndex * channels, maps[i]);
+            } else {
+                if (fallbackWeights == null) fallbackWeights = meanActivations(features, cells, featureChannels);
+                project(features, cells, featureChannels, fallbackWeights, 0, maps[i]);
+            }
+        }
+        return maps;
+    }
+
+    // out[p] = ReLU(features[p] . weights[offset..]) scaled to 0..1: a cells x channels mat-vec
+    static void project(FloatBuffer features, int cells, int channels, float[] weights, int offset, float[] out) {
+        float maxVal = 0f;
+        for (int p = 0; p < cells; p++) {
+            int base = p * channels;
+            float sum = 0f;
+            for (int k = 0; k < channels; k++) {
+                sum += features.get(base + k) * weights[offset + k];
+            }
+            float value = Math.max(sum, 0f); // ReLU
+            out[p] = value;
+            if (value > maxVal) maxVal = value;
+        }
+        if (maxVal > 0f) {
+            float scale = 1f / maxVal;
+            for (int p = 0; p < cells; p++) out[p] *= scale;
+        }
+    }
+
+    // Average activation per channel, used when the classifier weights are unavailable
+    static float[] meanActivations(FloatBuffer features, int cells, int channels) {
+        float[] weights = new float[channels];
+        for (int p = 0; p < cells; p++) {
+            int base = p * channels;
+            for (int k = 0; k < channels; k++) {
+                weights[k] += features.get(base + k);
+            }
+        }
+        for (int k = 0; k < channels; k++) {
+            weights[k] /= cells;
+        }
+        return weights;
+    }
+}
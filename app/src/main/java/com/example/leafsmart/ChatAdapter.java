@@ -0,0 +1,64 @@
+package com.example.leafsmart;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * RecyclerView Adapter for the chatbot transcript.
+ * Messages are only ever appended, so each one is a single insert (plus a removal at the top once
+ * the transcript ring is full) and existing bubbles are never re-measured.
+ */
+public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ViewHolder> {
+    private static final int TYPE_USER = 0, TYPE_BOT = 1;
+
+    private final ChatTranscript transcript;
+
+    public ChatAdapter(ChatTranscript transcript) {
+        this.transcript = transcript;
+    }
+
+    // Appends message and notifies the list of exactly what changed
+    public void addMessage(ChatMessage message) {
+        if (transcript.add(message)) {
+            notifyItemRemoved(0); // Oldest message dropped from the ring
+        }
+        notifyItemInserted(transcript.size() - 1);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return transcript.get(position).isFromUser() ? TYPE_USER : TYPE_BOT;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        int layout = viewType == TYPE_USER ? R.layout.item_chat_user : R.layout.item_chat_bot;
+        View view = LayoutInflater.from(parent.getContext()).inflate(layout, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.messageText.setText(transcript.get(position).getText());
+    }
+
+    @Override
+    public int getItemCount() {
+        return transcript.size();
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView messageText;
+
+        public ViewHolder(View view) {
+            super(view);
+            messageText = view.findViewById(R.id.textMessage);
+        }
+    }
+}
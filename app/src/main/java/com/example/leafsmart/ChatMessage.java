@@ -0,0 +1,17 @@
+package com.example.leafsmart;
+
+/**
+ * One line of the chatbot transcript: the text and who sent it.
+ */
+public final class ChatMessage {
+    private final String text;
+    private final boolean fromUser;
+
+    public ChatMessage(String text, boolean fromUser) {
+        this.text = text;
+        this.fromUser = fromUser;
+    }
+
+    public String getText() { return text; }
+    public boolean isFromUser() { return fromUser; }
+}
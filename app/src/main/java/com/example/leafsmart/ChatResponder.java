@@ -0,0 +1,70 @@
+package com.example.leafsmart;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Picks the chatbot's reply to a question, with a small LRU cache of recent replies keyed by the
+ * normalised question, so repeated questions (e.g. quick-access chips) are answered without a lookup.
+ * Safe to call from a background thread; an interrupted lookup returns null.
+ */
+public final class ChatResponder {
+    static final float MIN_CONFIDENCE = 0.5f; // Share of a stored question that must be covered to answer it
+    static final String FALLBACK = "Sorry, I couldn't understand that.\n" +
+            "Try including keywords like 'blight', 'mildew', 'bacterial spot', or crop names like 'tomato', 'apple', etc.";
+    private static final int CACHE_SIZE = 64;
+
+    private final QaRetriever retriever;
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public ChatResponder(QaRetriever retriever) {
+        this.retriever = retriever;
+    }
+
+    // Reply remembered for an equivalent question, or null; cheap enough for the main thread
+    public String getCached(String question) {
+        String key = TextNormalizer.normalize(question);
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    // Finds the most relevant answer from the Q&A dataset
+    // Using two-phase search: BM25-ranked keyword match and fallback to edit-distance similarity if not strong match found
+    public String answer(String question) {
+        String key = TextNormalizer.normalize(question);
+        synchronized (cache) {
+            String cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+
+        String reply = lookUp(key);
+        if (reply == null) return null; // Interrupted, nothing worth caching
+
+        synchronized (cache) {
+            cache.put(key, reply);
+        }
+        return reply;
+    }
+
+    private String lookUp(String question) {
+        // First step: best-ranked stored question sharing words with the input
+        QaRetriever.Match match = retriever.find(question);
+        if (match != null && match.getConfidence() >= MIN_CONFIDENCE) {
+            return match.getAnswer();
+        }
+        if (Thread.currentThread().isInterrupted()) return null; // A newer question replaced this one
+
+        // Second step: similarity match using edit distance, only if similarity is high enough (0.6+)
+        QaRetriever.Match similar = retriever.findSimilar(question);
+        if (similar != null) {
+            return similar.getAnswer();
+        }
+        return FALLBACK;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.leafsmart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Most recent chat messages, oldest first, in a fixed-size ring.
+ * Once full, each new message replaces the oldest one, so a long session uses constant memory.
+ */
+public final class ChatTranscript {
+    private final ChatMessage[] ring;
+    private int head; // Position of the oldest message
+    private int size;
+
+    public ChatTranscript(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity " + capacity);
+        ring = new ChatMessage[capacity];
+    }
+
+    public int capacity() { return ring.length; }
+    public int size() { return size; }
+
+    // Message at position index, 0 being the oldest kept
+    public ChatMessage get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("message " + index);
+        return ring[(head + index) % ring.length];
+    }
+
+    // Appends message; returns true if the oldest message was dropped to make room
+    public boolean add(ChatMessage message) {
+        if (size < ring.length) {
+            ring[(head + size) % ring.length] = message;
+            size++;
+            return false;
+        }
+        ring[head] = message;
+        head = (head + 1) % ring.length;
+        return true;
+    }
+
+    public List<ChatMessage> toList() {
+        List<ChatMessage> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(get(i));
+        return list;
+    }
+}
@@ -1,21 +1,23 @@
 package com.example.leafsmart;
 
 import android.content.Intent;
-import android.content.res.AssetManager;
-import android.graphics.Color;
 import android.os.Bundle;
-import android.view.Gravity;
-import android.view.ViewGroup;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import org.json.JSONObject;
-import org.json.JSONException;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Interactive plant care chatbot.
@@ -24,17 +26,34 @@ import java.util.Map;
  */
 public class ChatbotActivity extends AppCompatActivity {
 
-    private LinearLayout chatLayout; // Container for chat design
+    private static final int TRANSCRIPT_CAPACITY = 200; // Messages kept on screen and across recreation
+    private static final String STATE_TEXTS = "chat_texts";
+    private static final String STATE_FROM_USER = "chat_from_user";
+
+    private RecyclerView chatRecyclerView; // Recycled chat bubbles
+    private final ChatTranscript transcript = new ChatTranscript(TRANSCRIPT_CAPACITY); // Bounded message history
+    private ChatAdapter chatAdapter;
     private EditText chatInput; // User input text
     private Button sendButton; // Button to fired up the message
-    private JSONObject qaData; // Q&A Knowledge base
+    private ChatResponder responder = new ChatResponder(new QaRetriever(Collections.<String, String>emptyMap())); // Replaced once loaded
+    private final ExecutorService answerExecutor = Executors.newSingleThreadExecutor(); // Answer lookups off the UI thread
+    private Future<?> pendingAnswer; // Lookup of the latest question, cancelled when a newer one is sent
+    private int questionSerial; // Only the reply to this question is shown
+    private List<QaCategoryIndex.Category> categories = Collections.emptyList(); // Quick-access groups
+    private final SparseArray<View> questionSections = new SparseArray<>(); // Inflated on first expansion, by category
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_chatbot);
 
-        chatLayout = findViewById(R.id.chatLayout);
+        chatRecyclerView = findViewById(R.id.chatRecyclerView);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        layoutManager.setStackFromEnd(true); // Keep the latest messages at the bottom
+        chatRecyclerView.setLayoutManager(layoutManager);
+        restoreTranscript(savedInstanceState);
+        chatAdapter = new ChatAdapter(transcript);
+        chatRecyclerView.setAdapter(chatAdapter);
         chatInput = findViewById(R.id.chatInput);
         sendButton = findViewById(R.id.sendButton);
 
@@ -44,217 +63,156 @@ public class ChatbotActivity extends AppCompatActivity {
             Intent intent = new Intent(ChatbotActivity.this, MainActivity.class);
             startActivity(intent);
         });
-        // Load Q&A Knowledge based from the JSON file
-        qaData = loadJSONFromAsset("plant_qa.json");
-
-        LinearLayout quickButtonsLayout = findViewById(R.id.quickButtonsLayout);  // Layout for quick-access category
-
-        if (qaData != null) { // Set quick-access category buttons with an emoji (more straight forward than an layout import)
-            Map<String, String> groups = new LinkedHashMap<>();
-            groups.put("🍅 Tomato", "tomato");
-            groups.put("🍎 Apple", "apple");
-            groups.put("🍇 Grape", "grape");
-            groups.put("🌽 Corn", "corn");
-            groups.put("🌶️ Pepper", "pepper");
-            groups.put("🥔 Potato", "potato");
-            groups.put("🍓 Strawberry", "strawberry");
-            groups.put("🪴 General Care", "care");
-            groups.put("🧪 Tips & Healthy", "tips,healthy");
-            groups.put("🧬 Show Commands", "show");
-
-            // For each category, add a label and related quick buttons
-            for (Map.Entry<String, String> entry : groups.entrySet()) {
-                String groupTitle = entry.getKey();
-                String[] keywords = entry.getValue().split(",");
-
-                // Add category title
-                TextView groupHeader = new TextView(this);
-                groupHeader.setText(groupTitle);
-                groupHeader.setTextSize(16f);
-                groupHeader.setTextColor(Color.BLACK);
-                groupHeader.setPadding(10, 20, 10, 5);
-                groupHeader.setTypeface(null, android.graphics.Typeface.BOLD);
-                quickButtonsLayout.addView(groupHeader);
-
-                // Loop through Q&A entries to find matches for the group
-                Iterator<String> keys = qaData.keys();
-                boolean anyMatch = false;
-
-                while (keys.hasNext()) {
-                    String key = keys.next();
-                    boolean matched = false;
-
-                    for (String keyword : keywords) {
-                        if (key.toLowerCase().contains(keyword)) {
-                            matched = true;
-                            break;
-                        }
-                    }
-
-                    if (matched) {
-                        Button quickBtn = new Button(this);
-                        quickBtn.setText(capitalizeFirstLetter(key));
-                        quickBtn.setAllCaps(false);
-                        quickBtn.setTextSize(14f);
-                        quickBtn.setPadding(30, 20, 30, 20);
-                        quickBtn.setBackgroundResource(R.drawable.bubble_user);
-
-                        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                                ViewGroup.LayoutParams.WRAP_CONTENT,
-                                ViewGroup.LayoutParams.WRAP_CONTENT
-                        );
-                        params.setMargins(10, 5, 10, 5);
-                        quickBtn.setLayoutParams(params);
-
-                        quickBtn.setOnClickListener(v -> { // Button for pre-set question
-                            chatInput.setText(key);
-                            sendButton.performClick();
-                        });
+        // Load Q&A Knowledge based from the shared knowledge base (parsed once, off the main thread)
+        KnowledgeRepository.getInstance(this).load(new KnowledgeRepository.Callback() {
+            @Override
+            public void onLoaded(KnowledgeRepository knowledge) {
+                if (isDestroyed()) return; // Left the screen before the knowledge base was ready
+                responder = new ChatResponder(knowledge.getLoadedQaRetriever());
+                categories = knowledge.getLoadedQaCategories().getCategories();
+                setupQuickButtons();
+            }
 
-                        quickButtonsLayout.addView(quickBtn);
-                        anyMatch = true;
-                    }
-                }
-                // Remove the category header if no matches found
-                if (!anyMatch) {
-                    quickButtonsLayout.removeView(groupHeader);
-                }
+            @Override
+            public void onLoadFailed(Exception e) {
+                e.printStackTrace();
             }
-        }
+        });
+
         // Sending message functionality
         sendButton.setOnClickListener(v -> {
             String question = chatInput.getText().toString().trim();
             if (!question.isEmpty()) {
                 addChatBubble(question, true); // Add user message
-                String response = getAnswer(question.toLowerCase()); // Get bot reply
-                addChatBubble(response, false);
+                requestAnswer(question); // Get bot reply
                 chatInput.setText("");
             }
         });
     }
 
-    // Set styled chat bubble to the chat layout
-    private void addChatBubble(String message, boolean isUser) {
-        TextView chatBubble = new TextView(this);
-        chatBubble.setText(message);
-        chatBubble.setTextColor(Color.WHITE);
-        chatBubble.setPadding(25, 20, 25, 20);
-        chatBubble.setBackgroundResource(isUser ? R.drawable.bubble_user : R.drawable.bubble_bot);
-
-        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.WRAP_CONTENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT
-        );
-        params.gravity = isUser ? Gravity.END : Gravity.START;
-        params.setMargins(10, 10, 10, 10);
-        chatBubble.setLayoutParams(params);
-        chatLayout.addView(chatBubble);
-
-        // Automatic Scroll to the latest message
-        chatLayout.post(() -> ((ScrollView) chatLayout.getParent()).fullScroll(ScrollView.FOCUS_DOWN));
-    }
-    // Capitalises the first letter of a string
-    private String capitalizeFirstLetter(String input) {
-        if (input == null || input.isEmpty()) return input;
-        return input.substring(0, 1).toUpperCase() + input.substring(1);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        answerExecutor.shutdownNow();
     }
 
-    // Finds the most relevant answer from the Q&A dataset
-    // Using two-phase search: Keyword fragment match and fallback to Levenshtein similarity if not strong match found
-    private String getAnswer(String question) {
-        try {
-            question = question.toLowerCase();
-            String[] inputWords = question.split("\\s+");
-            Iterator<String> keys = qaData.keys();
+    // Answers from the cache right away, otherwise looks up in the background; a newer question cancels the lookup
+    private void requestAnswer(String question) {
+        final int serial = ++questionSerial;
+        if (pendingAnswer != null) {
+            pendingAnswer.cancel(true);
+            pendingAnswer = null;
+        }
 
-            // First step: direct Keyword/Fragment match
-            while (keys.hasNext()) {
-                String key = keys.next();
-                String[] keyWords = key.toLowerCase().split("\\s+");
+        String cached = responder.getCached(question);
+        if (cached != null) {
+            addChatBubble(cached, false);
+            return;
+        }
 
-                int matchCount = 0;
-                for (String word : keyWords) {
-                    for (String inputWord : inputWords) {
-                        if (inputWord.contains(word) || word.contains(inputWord)) {
-                            matchCount++;
-                        }
-                    }
-                }
+        final ChatResponder currentResponder = responder;
+        pendingAnswer = answerExecutor.submit(() -> {
+            String response = currentResponder.answer(question);
+            if (response == null) return; // Cancelled
+            runOnUiThread(() -> {
+                if (serial != questionSerial || isDestroyed()) return; // Stale reply
+                pendingAnswer = null;
+                addChatBubble(response, false);
+            });
+        });
+    }
 
-                if (matchCount >= 2 || question.contains(key.toLowerCase())) {
-                    return qaData.getString(key);
-                }
+    // Adds one collapsible chip per quick-access category (emoji titles, more straight forward than an layout import)
+    private void setupQuickButtons() {
+        ChipGroup categoryGroup = findViewById(R.id.quickCategoriesGroup);
+        LayoutInflater inflater = getLayoutInflater();
+        for (int i = 0; i < categories.size(); i++) {
+            Chip categoryChip = (Chip) inflater.inflate(R.layout.item_category_chip, categoryGroup, false);
+            categoryChip.setId(View.generateViewId());
+            categoryChip.setTag(i);
+            categoryChip.setText(categories.get(i).getTitle());
+            categoryGroup.addView(categoryChip);
+        }
+        // Selecting a category expands its questions; unselecting collapses them
+        categoryGroup.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (checkedIds.isEmpty()) {
+                showQuestions(-1);
+            } else {
+                showQuestions((Integer) group.findViewById(checkedIds.get(0)).getTag());
             }
+        });
+    }
 
-            // Second step: similarity match using Levenshtein distance
-            keys = qaData.keys();  // reset iterator
-            String bestMatchKey = null;
-            double highestSimilarity = 0.0;
-
-            while (keys.hasNext()) {
-                String key = keys.next();
-                String keyLower = key.toLowerCase();
-                int distance = levenshteinDistance(question, keyLower);
-                int maxLen = Math.max(question.length(), keyLower.length());
-
-                if (maxLen == 0) continue;
+    // Shows the question chips of a category, inflating them the first time; -1 hides the row
+    private void showQuestions(int category) {
+        HorizontalScrollView questionsScroll = findViewById(R.id.quickQuestionsScroll);
+        FrameLayout container = findViewById(R.id.quickQuestionsContainer);
+        container.removeAllViews();
+        if (category < 0) {
+            questionsScroll.setVisibility(View.GONE);
+            return;
+        }
+        View section = questionSections.get(category);
+        if (section == null) {
+            section = inflateQuestions(categories.get(category), container);
+            questionSections.put(category, section);
+        }
+        container.addView(section);
+        questionsScroll.scrollTo(0, 0);
+        questionsScroll.setVisibility(View.VISIBLE);
+    }
 
-                double similarity = 1.0 - ((double) distance / maxLen);
+    private View inflateQuestions(QaCategoryIndex.Category category, FrameLayout container) {
+        LayoutInflater inflater = getLayoutInflater();
+        ChipGroup section = (ChipGroup) inflater.inflate(R.layout.item_question_section, container, false);
+        for (String key : category.getKeys()) {
+            Chip quickChip = (Chip) inflater.inflate(R.layout.item_question_chip, section, false);
+            quickChip.setText(capitalizeFirstLetter(key));
+            quickChip.setOnClickListener(v -> { // Chip for pre-set question
+                chatInput.setText(key);
+                sendButton.performClick();
+            });
+            section.addView(quickChip);
+        }
+        return section;
+    }
 
-                if (similarity > highestSimilarity) {
-                    highestSimilarity = similarity;
-                    bestMatchKey = key;
-                }
-            }
+    // Appends a chat bubble and scrolls to it
+    private void addChatBubble(String message, boolean isUser) {
+        chatAdapter.addMessage(new ChatMessage(message, isUser));
 
-            // Only return if similarity is high enough (e.g. 0.6+)
-            if (highestSimilarity >= 0.6 && bestMatchKey != null) {
-                return qaData.getString(bestMatchKey);
-            }
+        // Automatic Scroll to the latest message
+        chatRecyclerView.scrollToPosition(chatAdapter.getItemCount() - 1);
+    }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        // The ring bounds the saved transcript as well
+        String[] texts = new String[transcript.size()];
+        boolean[] fromUser = new boolean[transcript.size()];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = transcript.get(i).getText();
+            fromUser[i] = transcript.get(i).isFromUser();
         }
-        return "Sorry, I couldn't understand that.\n" +
-                "Try including keywords like 'blight', 'mildew', 'bacterial spot', or crop names like 'tomato', 'apple', etc.";
+        outState.putStringArray(STATE_TEXTS, texts);
+        outState.putBooleanArray(STATE_FROM_USER, fromUser);
     }
-    // Calculates Levenshtein distance between two strings
-    private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
 
-        for (int i = 0; i <= s1.length(); i++) {
-            for (int j = 0; j <= s2.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                    dp[i][j] = Math.min(
-                            Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                            dp[i - 1][j - 1] + cost
-                    );
-                }
-            }
+    // Refills the transcript after a configuration change or process death
+    private void restoreTranscript(Bundle savedInstanceState) {
+        if (savedInstanceState == null) return;
+        String[] texts = savedInstanceState.getStringArray(STATE_TEXTS);
+        boolean[] fromUser = savedInstanceState.getBooleanArray(STATE_FROM_USER);
+        if (texts == null || fromUser == null || texts.length != fromUser.length) return;
+        for (int i = 0; i < texts.length; i++) {
+            transcript.add(new ChatMessage(texts[i], fromUser[i]));
         }
-        return dp[s1.length()][s2.length()];
     }
 
-    // Loads a JSON file from the assets folder into JSONObject
-    private JSONObject loadJSONFromAsset(String filename) {
-        String json;
-        try {
-            AssetManager assetManager = getAssets();
-            InputStream is = assetManager.open(filename);
-            int size = is.available();
-            byte[] buffer = new byte[size];
-            is.read(buffer);
-            is.close();
-            json = new String(buffer, StandardCharsets.UTF_8);
-            return new JSONObject(json);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return null;
-        }
+    // Capitalises the first letter of a string
+    private String capitalizeFirstLetter(String input) {
+        if (input == null || input.isEmpty()) return input;
+        return input.substring(0, 1).toUpperCase() + input.substring(1);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.leafsmart;
+
+import android.util.Half;
+
+import org.tensorflow.lite.schema.Buffer;
+import org.tensorflow.lite.schema.BuiltinOperator;
+import org.tensorflow.lite.schema.Model;
+import org.tensorflow.lite.schema.Operator;
+import org.tensorflow.lite.schema.OperatorCode;
+import org.tensorflow.lite.schema.QuantizationParameters;
+import org.tensorflow.lite.schema.SubGraph;
+import org.tensorflow.lite.schema.Tensor;
+import org.tensorflow.lite.schema.TensorType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the classifier's final dense layer straight out of the .tflite flatbuffer for CamEngine.
+ * It looks for the FULLY_CONNECTED operator with [classes][channels] weights, following the
+ * DEQUANTIZE in front of float16 weights, and widens float16 or int8 weights to float32.
+ */
+final class DenseWeightsReader {
+    private DenseWeightsReader() {}
+
+    // Flattened [class][channel] weights, or null if the model has no such layer
+    static float[] read(ByteBuffer model, int classes, int channels) {
+        Model root = Model.getRootAsModel(model.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+        if (root.subgraphsLength() == 0) return null;
+        SubGraph graph = root.subgraphs(0);
+        for (int i = 0; i < graph.operatorsLength(); i++) {
+            Operator op = graph.operators(i);
+            if (builtinCode(root, op) != BuiltinOperator.FULLY_CONNECTED || op.inputsLength() < 2) continue;
+            Tensor weights = graph.tensors(op.inputs(1));
+            if (weights.shapeLength() != 2 || weights.shape(0) != classes || weights.shape(1) != channels) continue;
+            float[] values = decode(root, graph.tensors(constantSource(root, graph, op.inputs(1))), classes * channels);
+            if (values != null) return values;
+        }
+        return null;
+    }
+
+    // The tensor holding the data of a weights input: itself, or the input of the DEQUANTIZE producing it
+    private static int constantSource(Model root, SubGraph graph, int tensorIndex) {
+        if (data(root, graph.tensors(tensorIndex)) != null) return tensorIndex;
+        for (int i = 0; i < graph.operatorsLength(); i++) {
+            Operator op = graph.operators(i);
+            if (builtinCode(root, op) == BuiltinOperator.DEQUANTIZE && op.outputsLength() > 0
+                    && op.outputs(0) == tensorIndex) {
+                return op.inputs(0);
+            }
+        }
+        return tensorIndex;
+    }
+
+    private static float[] decode(Model root, Tensor tensor, int count) {
+        ByteBuffer bytes = data(root, tensor);
+        if (bytes == null) return null;
+        int start = bytes.position();
+        float[] values = new float[count];
+        switch (tensor.type()) {
+            case TensorType.FLOAT32:
+                if (bytes.remaining() < count * 4) return null;
+                bytes.asFloatBuffer().get(values);
+                return values;
+            case TensorType.FLOAT16:
+                if (bytes.remaining() < count * 2) return null;
+                for (int i = 0; i < count; i++) values[i] = Half.toFloat(bytes.getShort(start + i * 2));
+                return values;
+            case TensorType.INT8:
+                QuantizationParameters quantization = tensor.quantization();
+                if (bytes.remaining() < count || quantization == null || quantization.scaleLength() == 0
+                        || count % quantization.scaleLength() != 0) return null;
+                int perRow = quantization.scaleLength() > 1 ? count / quantization.scaleLength() : count; // Per-class or per-tensor scale
+                for (int i = 0; i < count; i++) {
+                    int row = i / perRow;
+                    long zeroPoint = row < quantization.zeroPointLength() ? quantization.zeroPoint(row) : 0;
+                    values[i] = quantization.scale(row) * (bytes.get(start + i) - zeroPoint);
+                }
+                return values;
+            default:
+                return null;
+        }
+    }
+
+    // Constant data of a tensor, little-endian, or null for tensors computed at run time
+    private static ByteBuffer data(Model root, Tensor tensor) {
+        Buffer buffer = root.buffers((int) tensor.buffer());
+        ByteBuffer bytes = buffer != null ? buffer.dataAsByteBuffer() : null;
+        return bytes != null && bytes.hasRemaining() ? bytes.order(ByteOrder.LITTLE_ENDIAN) : null;
+    }
+
+    // Newer converters store the code in builtin_code, older ones only in the deprecated byte
+    private static int builtinCode(Model root, Operator op) {
+        OperatorCode code = root.operatorCodes((int) op.opcodeIndex());
+        return Math.max(code.deprecatedBuiltinCode(), code.builtinCode());
+    }
+}
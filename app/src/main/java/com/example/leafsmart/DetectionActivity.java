@@ -1,7 +1,6 @@
 package com.example.leafsmart;
 
 import android.content.Intent;
-import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
@@ -11,7 +10,6 @@ import android.widget.ImageView;
 import android.widget.Toast;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.support.image.TensorImage;
 import org.tensorflow.lite.support.image.ops.ResizeOp;
 import org.tensorflow.lite.support.common.ops.NormalizeOp;
@@ -19,22 +17,11 @@ import org.tensorflow.lite.support.image.ImageProcessor;
 import org.tensorflow.lite.DataType;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.List;
-import java.io.FileOutputStream;
 import androidx.core.content.FileProvider;
 
 /**
@@ -44,11 +31,12 @@ import androidx.core.content.FileProvider;
  */
 public class DetectionActivity extends AppCompatActivity {
     private static final int SELECT_IMAGE_REQUEST = 1; // Gallery permission
+    private static final int TOP_K = 3; // Number of predictions shown on the results screen
+    private static final float MIN_CONFIDENCE = 0f; // Predictions below this are not shown
     private ImageView selectedImage; // Preview of selected/capture image
-    private Bitmap inputBitmap; // Processed image for model input
-    private Interpreter interpreter; // TensorFlow Lite model interpreter
+    private ImageLoader.ScanImage inputImage; // Decoded preview + model-sized source of the selected image
+    private InferenceEngine engine; // Shared TensorFlow Lite model, labels and tensor shapes
     private ExecutorService executorService; // Runs inference in background thread
-    private List<String> labels; // Class labels from labels files
     private static final int CAMERA_REQUEST = 2; // Camera permission
     private Uri photoUri; // Set URI for captured photo
 
@@ -79,14 +67,14 @@ public class DetectionActivity extends AppCompatActivity {
                     .show();
         });
 
-        // Initialise background thread and load TLite model + labels
+        // Initialise background thread and warm up the shared TFLite model + labels (no-op once loaded)
         executorService = Executors.newSingleThreadExecutor();
-        loadModel();
-        loadLabels();
+        engine = InferenceEngine.getInstance(this);
+        executorService.execute(this::loadModel);
         // Button to fired up the model on the selected image
         btnPredict.setOnClickListener(v -> {
-            if (inputBitmap != null) {
-                performPrediction(inputBitmap);
+            if (inputImage != null) {
+                performPrediction(inputImage);
             } else {
                 Toast.makeText(this, "Please select an image first.", Toast.LENGTH_SHORT).show();
             }
@@ -101,16 +89,12 @@ public class DetectionActivity extends AppCompatActivity {
 
     // Save the input bitmaps as JPEG file
     private File saveBitmapToFile(Bitmap bitmap) {
-        String fileName = "leaf_" + System.currentTimeMillis() + ".jpg";
-        File imageFile = new File(getFilesDir(), fileName);
-        try (FileOutputStream out = new FileOutputStream(imageFile)) {
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
-            out.flush();
+        try {
+            return ImageStore.saveScanImage(getFilesDir(), bitmap, 90); // Named by content, shared by repeat scans
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
-        return imageFile;
     }
 
     // Open gallery to chose an image
@@ -140,104 +124,128 @@ public class DetectionActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (resultCode == RESULT_OK) {
-            try {
-                if (requestCode == SELECT_IMAGE_REQUEST && data != null) {
-                    Uri imageUri = data.getData();
-                    inputBitmap = MediaStore.Images.Media.getBitmap(this.getContentResolver(), imageUri);
-                } else if (requestCode == CAMERA_REQUEST && photoUri != null) {
-                    inputBitmap = MediaStore.Images.Media.getBitmap(this.getContentResolver(), photoUri);
-                }
-
-                if (inputBitmap != null) {
-                    selectedImage.setImageBitmap(inputBitmap);
-                }
+            Uri imageUri = null;
+            if (requestCode == SELECT_IMAGE_REQUEST && data != null) {
+                imageUri = data.getData();
+            } else if (requestCode == CAMERA_REQUEST && photoUri != null) {
+                imageUri = photoUri;
+            }
+            if (imageUri != null) {
+                loadImage(imageUri);
+            }
+        }
+    }
 
+    // Decodes the picked photo off the UI thread at preview and model sizes
+    private void loadImage(Uri imageUri) {
+        inputImage = null;
+        executorService.execute(() -> {
+            try {
+                ImageLoader.ScanImage image = ImageLoader.decodeForScan(getContentResolver(), imageUri);
+                runOnUiThread(() -> {
+                    inputImage = image;
+                    selectedImage.setImageBitmap(image.preview);
+                });
             } catch (IOException e) {
                 e.printStackTrace();
-                Toast.makeText(this, "Image load failed", Toast.LENGTH_SHORT).show();
+                runOnUiThread(() ->
+                        Toast.makeText(this, "Image load failed", Toast.LENGTH_SHORT).show()
+                );
             }
-        }
+        });
     }
 
-    // TFLite model loaded
+    // TFLite model loaded once per process by the shared engine
     private void loadModel() {
-        try (AssetFileDescriptor afd = getAssets().openFd("plant_disease_model_dual_output.tflite");
-             FileInputStream fis = afd.createInputStream()) {
-            FileChannel fc = fis.getChannel();
-            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getDeclaredLength());
-            interpreter = new Interpreter(buffer);
+        try {
+            engine.ensureLoaded();
         } catch (IOException e) {
-            Toast.makeText(this, "Error loading model.", Toast.LENGTH_LONG).show();
             e.printStackTrace();
+            runOnUiThread(() ->
+                    Toast.makeText(this, "Error loading model.", Toast.LENGTH_LONG).show()
+            );
         }
     }
 
     // Runs inference and send results to ResultsActivity
-    private void performPrediction(Bitmap bitmap) {
+    private void performPrediction(ImageLoader.ScanImage image) {
         executorService.execute(() -> {
             try {
-                // Preprocess input image
-                Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, 224, 224, true);
-                ByteBuffer inputBuffer = ByteBuffer.allocateDirect(1 * 224 * 224 * 3 * 4);
-                inputBuffer.order(ByteOrder.nativeOrder());
-
-                int[] intValues = new int[224 * 224];
-                resizedBitmap.getPixels(intValues, 0, 224, 0, 0, 224, 224);
-                int pixelIndex = 0;
-                for (int i = 0; i < 224; ++i) {
-                    for (int j = 0; j < 224; ++j) {
-                        final int val = intValues[pixelIndex++];
-                        inputBuffer.putFloat(((val >> 16) & 0xFF) / 255.0f); // R
-                        inputBuffer.putFloat(((val >> 8) & 0xFF) / 255.0f);  // G
-                        inputBuffer.putFloat((val & 0xFF) / 255.0f);         // B
-                    }
+                // Save image to file
+                File imageFile = saveBitmapToFile(image.preview);
+                if (imageFile == null) {
+                    runOnUiThread(() ->
+                            Toast.makeText(this, "Failed to save image for Grad-CAM.", Toast.LENGTH_SHORT).show()
+                    );
+                    return;
                 }
 
-                // Output arrays: feature map + predictions
-                float[][] predictionOutput = new float[1][38]; // softmax probabilities
-                float[][][][] convFeatureOutput = new float[1][7][7][1280]; // feature maps
-
-                Map<Integer, Object> outputMap = new HashMap<>();
-                outputMap.put(0, convFeatureOutput);
-                outputMap.put(1, predictionOutput);
-
-                Object[] inputArray = {inputBuffer};
-
-                // Run inference
-                interpreter.runForMultipleInputsOutputs(inputArray, outputMap);
-
-                // Process predictions
-                float[] confidences = predictionOutput[0];
-
-                // Get top-3 predictions
-                int[] topIndices = getTopKIndices(confidences, 3);
-                String[] topDiseaseNames = new String[3];
-                float[] topConfidences = new float[3];
+                long scanId = System.currentTimeMillis();
+                int[] topIndices = new int[TOP_K];
+                float[] topConfidences = new float[TOP_K];
+                String[] topDiseaseNames;
+                ScanResult result;
+                int[] featureShape;
+
+                // Reusable input/output buffers; locked so two detection screens never share a scan
+                InferenceContext context = engine.getContext();
+                synchronized (context) {
+                    // Preprocess input image: fused area-average resize + normalise
+                    Bitmap source = image.modelSource;
+                    int width = source.getWidth();
+                    int height = source.getHeight();
+                    source.getPixels(context.obtainSourcePixels(width, height), 0, width, 0, 0, width, height);
+                    context.preprocess(width, height);
+
+                    // Run inference into the feature map + predictions buffers
+                    context.run(engine::run);
+                    List<Disease> classes = engine.getClasses(); // Metadata table indexed by class id
+
+                    // Get top-k predictions straight from the softmax buffer
+                    int found = TopK.select(context.getPredictions(), TOP_K, MIN_CONFIDENCE,
+                            topIndices, topConfidences);
+                    if (found == 0) {
+                        throw new IllegalStateException("No prediction above threshold");
+                    }
+                    topIndices = Arrays.copyOf(topIndices, found);
+                    topConfidences = Arrays.copyOf(topConfidences, found);
+                    topDiseaseNames = new String[found];
+                    for (int i = 0; i < found; i++) {
+                        topDiseaseNames[i] = classes.get(topIndices[i]).getLabel();
+                    }
 
-                for (int i = 0; i < 3; i++) {
-                    topDiseaseNames[i] = labels.get(topIndices[i]);
-                    topConfidences[i] = confidences[topIndices[i]];
+                    // Reduce the feature map to one 7x7 Grad-CAM map per prediction straight from the output buffer
+                    featureShape = engine.getFeatureShape(); // [1, h, w, channels]
+                    float[][] classMaps = null;
+                    try {
+                        classMaps = engine.getCamEngine().computeMaps(context.getFeatures(),
+                                featureShape[1] * featureShape[2], featureShape[3], topIndices);
+                    } catch (IOException e) {
+                        e.printStackTrace(); // Results are still shown, without the heatmap
+                    }
+                    result = new ScanResult(scanId, topIndices, topDiseaseNames, topConfidences,
+                            imageFile.getAbsolutePath(), featureShape[1], featureShape[2], classMaps);
+                    ScanResultStore.put(result);
                 }
 
-                // Save feature map for Grad-CAM
-                saveFeatureMap(convFeatureOutput, getFilesDir().getAbsolutePath() + "/featuremap.raw");
-
                 // Launch it into the ResultsActivity
                 Intent intent = new Intent(DetectionActivity.this, ResultsActivity.class);
+                intent.putExtra("scan_id", scanId);
                 intent.putExtra("disease_names", topDiseaseNames);
                 intent.putExtra("confidences", topConfidences);
-                // Save image to file
-                File imageFile = saveBitmapToFile(bitmap);
-                if (imageFile != null) {
-                    intent.putExtra("image_path", imageFile.getAbsolutePath());
-                    intent.putExtra("feature_map_path", getFilesDir().getAbsolutePath() + "/featuremap.raw");
-                    intent.putExtra("top_index", topIndices[0]);
-
-                    startActivity(intent);
-                } else {
-                    runOnUiThread(() ->
-                            Toast.makeText(this, "Failed to save image for Grad-CAM.", Toast.LENGTH_SHORT).show()
-                    );
+                intent.putExtra("class_indices", topIndices);
+                intent.putExtra("image_path", result.getImagePath());
+                intent.putExtra("top_index", topIndices[0]);
+                startActivity(intent);
+
+                // Process-death fallback, written once the results screen is already on its way
+                if (result.getClassMaps() != null) {
+                    try {
+                        ScanResultStore.persist(getFilesDir(), scanId, featureShape[1], featureShape[2],
+                                result.getClassMaps());
+                    } catch (IOException e) {
+                        e.printStackTrace(); // Results still work from memory
+                    }
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -248,54 +256,11 @@ public class DetectionActivity extends AppCompatActivity {
         });
     }
 
-    // Returns indices of top-k highest probability predictions
-    private int[] getTopKIndices(float[] probs, int k) {
-        PriorityQueue<Integer> pq = new PriorityQueue<>((a, b) -> Float.compare(probs[b], probs[a]));
-        for (int i = 0; i < probs.length; i++) pq.add(i);
-
-        int[] topK = new int[k];
-        for (int i = 0; i < k; i++) topK[i] = pq.poll();
-        return topK;
-    }
-    // Save CNN feature map to binary file for later Grad-CAM generation
-    private void saveFeatureMap(float[][][][] features, String outputPath) {
-        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-            for (int i = 0; i < 7; i++) {
-                for (int j = 0; j < 7; j++) {
-                    for (int c = 0; c < 1280; c++) {
-                        float value = features[0][i][j][c];
-                        int intBits = Float.floatToIntBits(value);
-                        fos.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(intBits).array());
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-
-    // Loads class labels from labels.txt
-    private void loadLabels() {
-        labels = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(getAssets().open("labels.txt")))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                labels.add(line);
-            }
-        } catch (IOException e) {
-            Toast.makeText(this, "Failed to load labels", Toast.LENGTH_SHORT).show();
-            e.printStackTrace();
-        }
-    }
-
-
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if (executorService != null) {
-            executorService.shutdown(); // Clean up thread pool
+            executorService.shutdown(); // Clean up thread pool; the shared engine outlives this screen
         }
     }
 
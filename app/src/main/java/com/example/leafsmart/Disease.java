@@ -2,16 +2,38 @@ package com.example.leafsmart;
 
 /**
  * Model Class in charge of represent plant disease.
- * Stores key details, such as disease description, common symptoms and recommended treatment
- * Data load from the local diseases.json file
+ * Stores key details, such as disease description, common symptoms, recommended treatment and
+ * preventive tips, plus the crop and whether the class is a healthy leaf.
+ * Data load from the local diseases.json file (compiled into knowledge.pack)
  */
 public class Disease {
-    private String description;
-    private String symptoms;
-    private String treatment;
+    private final int classIndex; // Model output index
+    private final String label;
+    private final String description;
+    private final String symptoms;
+    private final String treatment;
+    private final String tips;
+    private final String crop;
+    private final boolean healthy;
 
+    public Disease(int classIndex, String label, String description, String symptoms, String treatment,
+                   String tips, String crop, boolean healthy) {
+        this.classIndex = classIndex;
+        this.label = label;
+        this.description = description;
+        this.symptoms = symptoms;
+        this.treatment = treatment;
+        this.tips = tips;
+        this.crop = crop;
+        this.healthy = healthy;
+    }
+
+    public int getClassIndex() { return classIndex; }
+    public String getLabel() { return label; }
     public String getDescription() { return description; }
     public String getSymptoms() { return symptoms; }
     public String getTreatment() { return treatment; }
+    public String getTips() { return tips; }
+    public String getCrop() { return crop; }
+    public boolean isHealthy() { return healthy; }
 }
-
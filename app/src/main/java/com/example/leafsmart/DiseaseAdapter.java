@@ -4,85 +4,58 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
-import android.widget.Filter;
-import android.widget.Filterable;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * This adapter is used for displaying and filtering the disease list
+ * This adapter is used for displaying the disease list.
+ * Search results are submitted as whole lists and diffed, so only changed rows are rebound.
  */
 
-public class DiseaseAdapter extends RecyclerView.Adapter<DiseaseAdapter.ViewHolder> implements Filterable {
+public class DiseaseAdapter extends ListAdapter<Disease, DiseaseAdapter.ViewHolder> {
     public interface OnItemClickListener {
         void onItemClick(String diseaseName);
     }
 
-    private final List<String> diseaseList; // List displayed
-    private final OnItemClickListener listener; // Click listener for each disease
-    private List<String> fullDiseaseList; // Full, unfiltered list for all diseases
+    // Diseases are identified by their model class index; their text never changes
+    private static final DiffUtil.ItemCallback<Disease> DIFF_CALLBACK = new DiffUtil.ItemCallback<Disease>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Disease oldItem, @NonNull Disease newItem) {
+            return oldItem.getClassIndex() == newItem.getClassIndex();
+        }
 
+        @Override
+        public boolean areContentsTheSame(@NonNull Disease oldItem, @NonNull Disease newItem) {
+            return oldItem.getLabel().equals(newItem.getLabel());
+        }
+    };
 
-    public DiseaseAdapter(List<String> diseaseList, OnItemClickListener listener) {
-        this.diseaseList = new ArrayList<>(diseaseList);
-        this.fullDiseaseList = new ArrayList<>(diseaseList);
+    private final OnItemClickListener listener; // Click listener for each disease
+
+    public DiseaseAdapter(OnItemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
     }
 
 
+    @NonNull
     @Override
-    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(android.R.layout.simple_list_item_1, parent, false);
         return new ViewHolder(view);
     }
 
     @Override
-    public void onBindViewHolder(ViewHolder holder, int position) {
-        String diseaseName = diseaseList.get(position);
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        String diseaseName = getItem(position).getLabel();
         holder.textView.setText(diseaseName);
         holder.itemView.setOnClickListener(v -> listener.onItemClick(diseaseName));
     }
 
-    @Override
-    public int getItemCount() {
-        return diseaseList.size();
-    }
-//
-    @Override
-    public Filter getFilter() {
-        return new Filter() {
-            @Override
-            protected FilterResults performFiltering(CharSequence constraint) {
-                List<String> filtered = new ArrayList<>();
-                if (constraint == null || constraint.length() == 0) {
-                    filtered.addAll(fullDiseaseList);
-                } else {
-                    String filterPattern = constraint.toString().toLowerCase().trim();
-                    for (String item : fullDiseaseList) {
-                        if (item.toLowerCase().contains(filterPattern)) {
-                            filtered.add(item);
-                        }
-                    }
-                }
-
-                FilterResults results = new FilterResults();
-                results.values = filtered;
-                return results;
-            }
-
-            @Override
-            protected void publishResults(CharSequence constraint, FilterResults results) {
-                diseaseList.clear();
-                diseaseList.addAll((List<String>) results.values);
-                notifyDataSetChanged();
-            }
-        };
-    }
-
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView textView;
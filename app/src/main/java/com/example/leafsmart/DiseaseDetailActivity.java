@@ -6,22 +6,18 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.util.Map;
 
 /**
  * Displays detailed information by plant disease.
  * This information includes disease name, description, symptoms, and treatment.
- * Data is loaded from the local JSON file so it works fully offline.
+ * Data comes from the bundled knowledge base so it works fully offline.
  */
 public class DiseaseDetailActivity extends AppCompatActivity {
 
     private TextView nameText, descriptionText, symptomsText, treatmentText;
-    private Map<String, Disease> diseaseMap; // Holds all disease details from JSON
+    private Map<String, Disease> diseaseMap; // All disease details from the shared knowledge base
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,21 +36,27 @@ public class DiseaseDetailActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
-        // Load the full disease dataset from local storage file (completely  offline)
-        try {
-            InputStreamReader reader = new InputStreamReader(getAssets().open("diseases.json"));
-            Type type = new TypeToken<Map<String, Disease>>() {}.getType();
-            diseaseMap = new Gson().fromJson(reader, type);
-        } catch (Exception e) {
-            Toast.makeText(this, "Failed to load disease data", Toast.LENGTH_SHORT).show();
-            return; // Exist early if we cannot load data
-        }
-
         // Get selected disease
         String diseaseName = getIntent().getStringExtra("disease_name");
         nameText.setText(diseaseName);
-        // Look up for disease in our loaded map and display its details
-        Disease disease = diseaseMap.get(diseaseName);
+
+        // Look up the disease in the shared knowledge base (completely offline, parsed once per app run)
+        KnowledgeRepository.getInstance(this).load(new KnowledgeRepository.Callback() {
+            @Override
+            public void onLoaded(KnowledgeRepository knowledge) {
+                diseaseMap = knowledge.getLoadedDiseases();
+                showDisease(diseaseMap.get(diseaseName));
+            }
+
+            @Override
+            public void onLoadFailed(Exception e) {
+                Toast.makeText(DiseaseDetailActivity.this, "Failed to load disease data", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Displays the details of the disease, or N/A if it is unknown
+    private void showDisease(Disease disease) {
         if (disease != null) {
             descriptionText.setText("Description: " + disease.getDescription());
             symptomsText.setText("Symptoms: " + disease.getSymptoms());
@@ -7,13 +7,8 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import java.io.InputStreamReader;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import android.widget.SearchView;
 
 /**
@@ -24,7 +19,9 @@ public class DiseaseListActivity extends AppCompatActivity {
 
     private RecyclerView recyclerView; // List for disease names
     private DiseaseAdapter adapter; // Adapter for handling diseases list
-    private Map<String, Disease> diseaseMap; // Maps disease names to details
+    private DiseaseSearchIndex searchIndex; // Built once per screen, queried on the main thread
+    private String pendingQuery = ""; // Latest query, applied once the index is ready
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,6 +30,13 @@ public class DiseaseListActivity extends AppCompatActivity {
 
         recyclerView = findViewById(R.id.recyclerViewDiseases);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        // Set up adapter for click propose
+        adapter = new DiseaseAdapter(diseaseName -> {
+            Intent intent = new Intent(DiseaseListActivity.this, DiseaseDetailActivity.class);
+            intent.putExtra("disease_name", diseaseName);
+            startActivity(intent);
+        });
+        recyclerView.setAdapter(adapter);
 
         SearchView searchView = findViewById(R.id.searchView);
 
@@ -44,39 +48,55 @@ public class DiseaseListActivity extends AppCompatActivity {
         });
 
         loadDiseases(); // Load diseases from JSON file
-        // Live search filter
+        // Live search over names, symptoms and treatments
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
-                adapter.getFilter().filter(query);
+                applyQuery(query);
                 return false;
             }
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                adapter.getFilter().filter(newText);
+                applyQuery(newText);
                 return false;
             }
         });
     }
-    // Reads the JSON file from assets directory and loads all diseases as a list
-    private void loadDiseases() {
-        try {
-            InputStreamReader reader = new InputStreamReader(getAssets().open("diseases.json"));
-            Type type = new TypeToken<Map<String, Disease>>(){}.getType();
-            diseaseMap = new Gson().fromJson(reader, type);
 
-            List<String> diseaseNames = new ArrayList<>(diseaseMap.keySet()); // Extract disease names for the list
-            // Set up adapter for click propose
-            adapter = new DiseaseAdapter(diseaseNames, diseaseName -> {
-                Intent intent = new Intent(this, DiseaseDetailActivity.class);
-                intent.putExtra("disease_name", diseaseName);
-                startActivity(intent);
-            });
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executorService.shutdownNow();
+    }
+
+    // Ranks matching diseases through the index; the adapter diffs the result against the shown list
+    private void applyQuery(String query) {
+        pendingQuery = query != null ? query : "";
+        if (searchIndex == null) return; // Applied once the diseases are loaded
+        adapter.submitList(searchIndex.search(pendingQuery));
+    }
+
+    // Takes all diseases from the shared knowledge base (parsed once, off the main thread) and indexes them
+    private void loadDiseases() {
+        KnowledgeRepository.getInstance(this).load(new KnowledgeRepository.Callback() {
+            @Override
+            public void onLoaded(KnowledgeRepository knowledge) {
+                if (isDestroyed()) return; // Left the screen before the knowledge base was ready
+                executorService.execute(() -> {
+                    DiseaseSearchIndex index = new DiseaseSearchIndex(knowledge.getLoadedClasses());
+                    runOnUiThread(() -> {
+                        if (isDestroyed()) return;
+                        searchIndex = index;
+                        applyQuery(pendingQuery);
+                    });
+                });
+            }
 
-            recyclerView.setAdapter(adapter);
-        } catch (Exception e) {
-            Toast.makeText(this, "Error loading diseases.", Toast.LENGTH_LONG).show();
-        }
+            @Override
+            public void onLoadFailed(Exception e) {
+                Toast.makeText(DiseaseListActivity.this, "Error loading diseases.", Toast.LENGTH_LONG).show();
+            }
+        });
     }
 }
\ No newline at end of file
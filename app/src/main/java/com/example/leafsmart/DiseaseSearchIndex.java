@@ -0,0 +1,239 @@
+package com.example.leafsmart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prebuilt search index over the disease catalogue (name, symptoms and treatment).
+ * Text is normalised once into a sorted term dictionary with postings, so a query token is
+ * resolved through a trigram index over the dictionary (whole word, word prefix or anywhere inside
+ * a word) instead of scanning every disease's text. Every token must match; diseases are ranked by where
+ * and how well the tokens match. When a query only extends the previous one, only the previous
+ * matches are rescored. Not thread-safe: use from one thread, e.g. the main thread.
+ */
+public final class DiseaseSearchIndex {
+    // Field weights: a hit in the name counts more than one in the symptoms or treatment
+    private static final int FIELD_NAME = 1, FIELD_SYMPTOMS = 2, FIELD_TREATMENT = 4;
+    private static final float NAME_WEIGHT = 3f, SYMPTOMS_WEIGHT = 1.5f, TREATMENT_WEIGHT = 1f;
+    // Match quality: whole word, start of a word, inside a word
+    private static final float EXACT = 1f, PREFIX = 0.75f, INFIX = 0.5f;
+    private static final int GRAM = 3;
+
+    private final List<Disease> diseases;
+    private final String[] terms; // Sorted dictionary
+    private final int[][] postingDocs; // Per term: diseases containing it, ascending
+    private final byte[][] postingFields; // Per term and disease: FIELD_* mask
+    private final Map<String, int[]> gramTerms; // Trigram -> ids of terms containing it
+
+    // Scratch, reused across queries
+    private final float[] tokenScore;
+    private final float[] totalScore;
+    private final int[] matchedTokens;
+    private final int[] stamp; // Query serial that last touched each disease
+    private int serial;
+
+    // Incremental narrowing: matches of the previous query
+    private String lastQuery = "";
+    private int[] lastMatches;
+
+    public DiseaseSearchIndex(List<Disease> diseases) {
+        this.diseases = Collections.unmodifiableList(new ArrayList<>(diseases));
+        int count = this.diseases.size();
+
+        // term -> (disease -> field mask), sorted by term
+        TreeMap<String, TreeMap<Integer, Integer>> postings = new TreeMap<>();
+        for (int d = 0; d < count; d++) {
+            Disease disease = this.diseases.get(d);
+            addField(postings, d, disease.getLabel(), FIELD_NAME);
+            addField(postings, d, disease.getSymptoms(), FIELD_SYMPTOMS);
+            addField(postings, d, disease.getTreatment(), FIELD_TREATMENT);
+        }
+
+        terms = postings.keySet().toArray(new String[0]);
+        postingDocs = new int[terms.length][];
+        postingFields = new byte[terms.length][];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        int t = 0;
+        for (Map.Entry<String, TreeMap<Integer, Integer>> entry : postings.entrySet()) {
+            TreeMap<Integer, Integer> docs = entry.getValue();
+            postingDocs[t] = new int[docs.size()];
+            postingFields[t] = new byte[docs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> doc : docs.entrySet()) {
+                postingDocs[t][i] = doc.getKey();
+                postingFields[t][i] = (byte) (int) doc.getValue();
+                i++;
+            }
+            String term = entry.getKey();
+            for (int g = 0; g + GRAM <= term.length(); g++) {
+                String gram = term.substring(g, g + GRAM);
+                List<Integer> ids = grams.get(gram);
+                if (ids == null) {
+                    ids = new ArrayList<>();
+                    grams.put(gram, ids);
+                }
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != t) ids.add(t);
+            }
+            t++;
+        }
+        gramTerms = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : grams.entrySet()) {
+            List<Integer> ids = entry.getValue();
+            int[] array = new int[ids.size()];
+            for (int i = 0; i < array.length; i++) array[i] = ids.get(i);
+            gramTerms.put(entry.getKey(), array);
+        }
+
+        tokenScore = new float[count];
+        totalScore = new float[count];
+        matchedTokens = new int[count];
+        stamp = new int[count];
+        Arrays.fill(tokenScore, -1f); // -1 marks "not scored for the current token"
+    }
+
+    private static void addField(TreeMap<String, TreeMap<Integer, Integer>> postings, int doc, String text, int field) {
+        if (text == null) return;
+        for (String token : TextNormalizer.tokenize(text)) {
+            TreeMap<Integer, Integer> docs = postings.get(token);
+            if (docs == null) {
+                docs = new TreeMap<>();
+                postings.put(token, docs);
+            }
+            Integer mask = docs.get(doc);
+            docs.put(doc, mask == null ? field : mask | field);
+        }
+    }
+
+    public int size() { return diseases.size(); }
+
+    // Diseases matching every word of the query, best first; all diseases for an empty query
+    public List<Disease> search(String query) {
+        int[] ids = searchIds(query);
+        List<Disease> result = new ArrayList<>(ids.length);
+        for (int id : ids) result.add(diseases.get(id));
+        return result;
+    }
+
+    // Indexes into the catalogue of the matching diseases, best first
+    public int[] searchIds(String query) {
+        String normalized = TextNormalizer.normalize(query);
+        List<String> tokens = TextNormalizer.split(normalized);
+        if (tokens.isEmpty()) {
+            lastQuery = "";
+            lastMatches = null;
+            int[] all = new int[diseases.size()];
+            for (int i = 0; i < all.length; i++) all[i] = i;
+            return all;
+        }
+
+        // Extending the previous query can only narrow its matches
+        int[] candidates = lastMatches != null && !lastQuery.isEmpty() && normalized.startsWith(lastQuery)
+                ? lastMatches : null;
+
+        serial++;
+        if (candidates != null) {
+            for (int doc : candidates) {
+                stamp[doc] = serial;
+                totalScore[doc] = 0f;
+                matchedTokens[doc] = 0;
+            }
+        }
+
+        for (int k = 0; k < tokens.size(); k++) {
+            scoreToken(tokens.get(k), k, candidates != null);
+        }
+
+        // Keep diseases that matched every token, ranked by score then catalogue order
+        List<Integer> matches = new ArrayList<>();
+        if (candidates != null) {
+            for (int doc : candidates) {
+                if (matchedTokens[doc] == tokens.size()) matches.add(doc);
+            }
+        } else {
+            for (int doc = 0; doc < diseases.size(); doc++) {
+                if (stamp[doc] == serial && matchedTokens[doc] == tokens.size()) matches.add(doc);
+            }
+        }
+        Collections.sort(matches, (a, b) -> {
+            int byScore = Float.compare(totalScore[b], totalScore[a]);
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+
+        int[] result = new int[matches.size()];
+        for (int i = 0; i < result.length; i++) result[i] = matches.get(i);
+        lastQuery = normalized;
+        lastMatches = result.clone();
+        Arrays.sort(lastMatches);
+        return result;
+    }
+
+    // Adds the best score of token k to every disease that matched tokens 0..k-1
+    private void scoreToken(String token, int k, boolean restricted) {
+        List<Integer> touched = new ArrayList<>();
+        for (int t : matchingTerms(token)) {
+            String term = terms[t];
+            float quality = term.equals(token) ? EXACT : (term.startsWith(token) ? PREFIX : INFIX);
+            int[] docs = postingDocs[t];
+            byte[] fields = postingFields[t];
+            for (int i = 0; i < docs.length; i++) {
+                int doc = docs[i];
+                if (stamp[doc] != serial) {
+                    if (restricted || k > 0) continue; // Not a candidate, or missed an earlier token
+                    stamp[doc] = serial;
+                    totalScore[doc] = 0f;
+                    matchedTokens[doc] = 0;
+                }
+                if (matchedTokens[doc] != k) continue;
+                float score = quality * fieldWeight(fields[i]);
+                if (tokenScore[doc] < 0f) touched.add(doc);
+                if (score > tokenScore[doc]) tokenScore[doc] = score;
+            }
+        }
+        for (int doc : touched) {
+            totalScore[doc] += tokenScore[doc];
+            matchedTokens[doc] = k + 1;
+            tokenScore[doc] = -1f;
+        }
+    }
+
+    private float fieldWeight(byte mask) {
+        if ((mask & FIELD_NAME) != 0) return NAME_WEIGHT;
+        if ((mask & FIELD_SYMPTOMS) != 0) return SYMPTOMS_WEIGHT;
+        return TREATMENT_WEIGHT;
+    }
+
+    // Ids of dictionary terms containing token, narrowed through the rarest of its trigrams
+    private int[] matchingTerms(String token) {
+        if (token.length() < GRAM) {
+            // Too short for the trigram index; the dictionary is small next to the catalogue text
+            List<Integer> ids = new ArrayList<>();
+            for (int t = 0; t < terms.length; t++) {
+                if (terms[t].contains(token)) ids.add(t);
+            }
+            return toArray(ids);
+        }
+
+        int[] smallest = null;
+        for (int g = 0; g + GRAM <= token.length(); g++) {
+            int[] ids = gramTerms.get(token.substring(g, g + GRAM));
+            if (ids == null) return new int[0];
+            if (smallest == null || ids.length < smallest.length) smallest = ids;
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int t : smallest) {
+            if (terms[t].contains(token)) ids.add(t);
+        }
+        return toArray(ids);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+        return array;
+    }
+}
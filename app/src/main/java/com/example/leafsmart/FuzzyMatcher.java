@@ -0,0 +1,213 @@
+package com.example.leafsmart;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant lookup of the candidate most similar to a query, where similarity is
+ * 1 - editDistance / longerLength. Candidates that cannot reach the minimum similarity are dropped
+ * by length and shared character bigrams before any distance is computed, and the distance itself
+ * uses Myers' bit-parallel algorithm (a banded table beyond 64 characters) that stops as soon as
+ * the allowed number of edits is exceeded. Scratch space is reused, so lookups do not allocate per
+ * candidate. Calls are serialised.
+ */
+public final class FuzzyMatcher {
+    public static final class Result {
+        private final int index;
+        private final float similarity;
+
+        Result(int index, float similarity) {
+            this.index = index;
+            this.similarity = similarity;
+        }
+
+        // Position of the candidate in the list given to the constructor
+        public int getIndex() { return index; }
+        public float getSimilarity() { return similarity; }
+    }
+
+    private static final int WORD_BITS = 64;
+
+    private final String[] candidates;
+    private final int[][] bigrams; // Per candidate: packed character pairs, sorted
+    private final double minSimilarity;
+
+    // Scratch, reused across lookups
+    private final long[] asciiPeq = new long[128]; // Query positions of each ASCII character
+    private final Map<Character, Long> otherPeq = new HashMap<>();
+    private int[] previousRow = new int[0];
+    private int[] currentRow = new int[0];
+
+    public FuzzyMatcher(List<String> candidates, double minSimilarity) {
+        this.candidates = candidates.toArray(new String[0]);
+        this.minSimilarity = minSimilarity;
+        bigrams = new int[this.candidates.length][];
+        for (int i = 0; i < this.candidates.length; i++) {
+            bigrams[i] = bigrams(this.candidates[i]);
+        }
+    }
+
+    // Most similar candidate at or above the minimum similarity, the first one on ties; null if none
+    public synchronized Result findBest(String query) {
+        int[] queryBigrams = bigrams(query);
+        boolean bitParallel = query.length() <= WORD_BITS;
+        if (bitParallel) preparePeq(query);
+
+        int best = -1;
+        float bestSimilarity = -1f;
+        for (int i = 0; i < candidates.length; i++) {
+            String candidate = candidates[i];
+            int maxLen = Math.max(query.length(), candidate.length());
+            if (maxLen == 0) continue;
+            int maxEdits = maxEdits(maxLen);
+
+            // Every edit changes the length by at most one and touches at most two bigrams
+            if (Math.abs(query.length() - candidate.length()) > maxEdits) continue;
+            if (sharedCount(queryBigrams, bigrams[i]) < maxLen - 1 - 2 * maxEdits) continue;
+
+            int distance = bitParallel
+                    ? myersDistance(query.length(), candidate, maxEdits)
+                    : bandedDistance(query, candidate, maxEdits);
+            if (distance > maxEdits) continue;
+
+            float similarity = 1f - (float) distance / maxLen;
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = i;
+            }
+        }
+        if (bitParallel) clearPeq(query);
+        return best >= 0 ? new Result(best, bestSimilarity) : null;
+    }
+
+    // Edit distance between a and b if it is at most maxEdits, otherwise any value above maxEdits
+    public synchronized int distance(String a, String b, int maxEdits) {
+        if (a.length() > WORD_BITS) return bandedDistance(a, b, maxEdits);
+        preparePeq(a);
+        int distance = myersDistance(a.length(), b, maxEdits);
+        clearPeq(a);
+        return distance;
+    }
+
+    // Largest distance that still reaches the minimum similarity for strings up to maxLen long
+    private int maxEdits(int maxLen) {
+        return (int) Math.floor((1.0 - minSimilarity) * maxLen + 1e-9);
+    }
+
+    private void preparePeq(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) {
+                asciiPeq[c] |= 1L << i;
+            } else {
+                Long bits = otherPeq.get(c);
+                otherPeq.put(c, (bits == null ? 0L : bits) | 1L << i);
+            }
+        }
+    }
+
+    private void clearPeq(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) asciiPeq[c] = 0L;
+        }
+        otherPeq.clear();
+    }
+
+    private long peq(char c) {
+        if (c < 128) return asciiPeq[c];
+        Long bits = otherPeq.get(c);
+        return bits == null ? 0L : bits;
+    }
+
+    // Myers/Hyyrö bit-vector edit distance against the prepared pattern of length m (1..64)
+    private int myersDistance(int m, String text, int maxEdits) {
+        int n = text.length();
+        if (m == 0) return n;
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0L;
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            long eq = peq(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // The remaining n - j - 1 columns can lower the score by at most one each
+            if (score - (n - j - 1) > maxEdits) return maxEdits + 1;
+            ph = (ph << 1) | 1L;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
+
+    // Levenshtein table restricted to the diagonal band |i - j| <= maxEdits, two reusable rows
+    private int bandedDistance(String a, String b, int maxEdits) {
+        int m = a.length(), n = b.length();
+        if (Math.abs(m - n) > maxEdits) return maxEdits + 1;
+        if (previousRow.length < n + 1) {
+            previousRow = new int[n + 1];
+            currentRow = new int[n + 1];
+        }
+        int outside = maxEdits + 1;
+        for (int j = 0; j <= n; j++) previousRow[j] = j <= maxEdits ? j : outside;
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(n, i + maxEdits);
+            currentRow[0] = i <= maxEdits ? i : outside;
+            if (from > 1) currentRow[from - 1] = outside;
+            int rowMin = currentRow[0];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previousRow[j] + 1, currentRow[j - 1] + 1), previousRow[j - 1] + cost);
+                currentRow[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, currentRow[j]);
+            }
+            if (to < n) currentRow[to + 1] = outside;
+            if (rowMin > maxEdits) return outside;
+            int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        return previousRow[n];
+    }
+
+    // Character pairs packed into ints, sorted so two profiles intersect in one merge
+    private static int[] bigrams(String s) {
+        if (s.length() < 2) return new int[0];
+        int[] grams = new int[s.length() - 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (s.charAt(i) << 16) | s.charAt(i + 1);
+        }
+        Arrays.sort(grams);
+        return grams;
+    }
+
+    // Size of the multiset intersection of two sorted bigram profiles
+    private static int sharedCount(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+}
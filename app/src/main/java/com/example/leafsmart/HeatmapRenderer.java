@@ -0,0 +1,96 @@
+package com.example.leafsmart;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ * Renders a small activation map (e.g. 7x7) as a translucent heatmap layer.
+ * The map is bilinearly upsampled straight to the size it is displayed at and coloured through
+ * a precomputed 256-entry colormap, so no full-resolution overlay bitmap is ever built.
+ */
+public final class HeatmapRenderer {
+    private static final int MAX_ALPHA = 150; // Opacity of the strongest activation
+    private static final int[] COLORMAP = buildColormap();
+
+    private HeatmapRenderer() {}
+
+    // Heatmap bitmap of width x height for the rows x cols map (values 0..1)
+    public static Bitmap render(float[] map, int rows, int cols, int width, int height) {
+        int[] pixels = new int[width * height];
+        render(map, rows, cols, pixels, width, height);
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    // Copy of image with the heatmap of the map drawn over it, e.g. for history entries
+    public static Bitmap composite(Bitmap image, float[] map, int rows, int cols) {
+        Bitmap overlay = image.copy(Bitmap.Config.ARGB_8888, true);
+        Canvas canvas = new Canvas(overlay);
+        canvas.drawBitmap(render(map, rows, cols, image.getWidth(), image.getHeight()), 0, 0, null);
+        return overlay;
+    }
+
+    // Fills out with ARGB colours of the map bilinearly resampled to width x height
+    public static void render(float[] map, int rows, int cols, int[] out, int width, int height) {
+        // Horizontal sample positions are the same for every row
+        int[] x0 = new int[width];
+        int[] x1 = new int[width];
+        float[] fx = new float[width];
+        for (int x = 0; x < width; x++) {
+            float sx = clamp((x + 0.5f) * cols / width - 0.5f, cols - 1);
+            x0[x] = (int) sx;
+            x1[x] = Math.min(x0[x] + 1, cols - 1);
+            fx[x] = sx - x0[x];
+        }
+
+        for (int y = 0; y < height; y++) {
+            float sy = clamp((y + 0.5f) * rows / height - 0.5f, rows - 1);
+            int top = (int) sy;
+            int bottom = Math.min(top + 1, rows - 1);
+            float fy = sy - top;
+            int topRow = top * cols;
+            int bottomRow = bottom * cols;
+            int o = y * width;
+            for (int x = 0; x < width; x++) {
+                float upper = map[topRow + x0[x]] + (map[topRow + x1[x]] - map[topRow + x0[x]]) * fx[x];
+                float lower = map[bottomRow + x0[x]] + (map[bottomRow + x1[x]] - map[bottomRow + x0[x]]) * fx[x];
+                float value = upper + (lower - upper) * fy;
+                int index = (int) (value * 255f + 0.5f);
+                out[o + x] = COLORMAP[index < 0 ? 0 : (index > 255 ? 255 : index)];
+            }
+        }
+    }
+
+    // Size of the image as shown by a fitCenter ImageView of viewWidth x viewHeight
+    public static int[] fitCenterSize(int imageWidth, int imageHeight, int viewWidth, int viewHeight) {
+        if (viewWidth <= 0 || viewHeight <= 0) {
+            return new int[]{imageWidth, imageHeight}; // View not laid out: keep the image's own size
+        }
+        float scale = Math.min((float) viewWidth / imageWidth, (float) viewHeight / imageHeight);
+        return new int[]{
+                Math.max(1, Math.round(imageWidth * scale)),
+                Math.max(1, Math.round(imageHeight * scale))
+        };
+    }
+
+    private static float clamp(float value, int max) {
+        return value < 0f ? 0f : (value > max ? max : value);
+    }
+
+    // Jet-style blue -> cyan -> yellow -> red ramp whose opacity grows with the activation
+    private static int[] buildColormap() {
+        int[] lut = new int[256];
+        for (int i = 0; i < 256; i++) {
+            float v = i / 255f;
+            int r = channel(1.5f - Math.abs(4f * v - 3f));
+            int g = channel(1.5f - Math.abs(4f * v - 2f));
+            int b = channel(1.5f - Math.abs(4f * v - 1f));
+            int a = Math.round(v * MAX_ALPHA);
+            lut[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+        return lut;
+    }
+
+    private static int channel(float value) {
+        return Math.round(Math.max(0f, Math.min(1f, value)) * 255f);
+    }
+}
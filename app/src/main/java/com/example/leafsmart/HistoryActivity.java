@@ -6,20 +6,12 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -29,10 +21,13 @@ import java.util.Map;
  */
 public class HistoryActivity extends AppCompatActivity {
 
+    private static final int PREFETCH_DISTANCE = 10; // Rows from the end at which the next page is requested
+
     private RecyclerView recyclerView;
     private HistoryAdapter adapter;
-    private List<HistoryItem> historyList; // List of saved history entries
-    private Map<String, Disease> diseaseMap; // Disease details loaded from assets file
+    private HistoryPagedSource pagedSource; // Loads saved history entries page by page in the background
+    private TextView emptyText;
+    private Map<String, Disease> diseaseMap = Collections.emptyMap(); // Disease details from the shared knowledge base
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,33 +35,38 @@ public class HistoryActivity extends AppCompatActivity {
         setContentView(R.layout.activity_history);
 
         recyclerView = findViewById(R.id.recyclerHistory);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        emptyText = findViewById(R.id.textEmptyHistory);
 
-        loadHistory();// Load saved history from file
+        loadDiseaseData(); // Load disease descriptions for detail view
+        loadHistory(); // Start loading saved history from the database
+
+        // Request the next page as the list approaches its end
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    pagedSource.loadNextPage();
+                }
+            }
+        });
 
         Button btnClearHistory = findViewById(R.id.btnClearHistory);
-        TextView emptyText = findViewById(R.id.textEmptyHistory);
-
-        loadDiseaseData(); // Load disease descriptions for detail view
 
         // Clear History functionality
         btnClearHistory.setOnClickListener(v -> {
-            File file = new File(getFilesDir(), "history.json");
-            if (file.exists() && file.delete()) {
-                File[] files = getFilesDir().listFiles();
-                for (File f : files) {
-                    if (f.getName().startsWith("leaf_")) {
-                        f.delete();
-                    }
+            StorageManager.getInstance(this).clearAsync(deleted -> {
+                if (isDestroyed()) return;
+                if (deleted > 0) {
+                    pagedSource.reset();
+                    adapter.submitList(null); // Clear list
+                    emptyText.setVisibility(View.VISIBLE);
+                    Toast.makeText(this, "History cleared.", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(this, "No history to delete.", Toast.LENGTH_SHORT).show();
                 }
-
-                historyList.clear(); // Clear list
-                adapter.notifyDataSetChanged();
-                emptyText.setVisibility(View.VISIBLE);
-                Toast.makeText(this, "History cleared.", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(this, "No history to delete.", Toast.LENGTH_SHORT).show();
-            }
+            });
         });
 
 
@@ -79,66 +79,73 @@ public class HistoryActivity extends AppCompatActivity {
 
     }
 
-    // Loads saved history entries from history.json into the list
+    // Sets up the adapter and requests the first page of saved history entries
     private void loadHistory() {
-        try {
-            File file = new File(getFilesDir(), "history.json");
-            if (file.exists()) {
-                FileInputStream fis = new FileInputStream(file); // Read JSON file
-                InputStreamReader reader = new InputStreamReader(fis);
-                Gson gson = new Gson();
-                Type listType = new TypeToken<List<HistoryItem>>(){}.getType();
-                historyList = gson.fromJson(reader, listType);
-                reader.close();
-            } else {
-                historyList = new ArrayList<>();
+        // Adapter creation
+        adapter = new HistoryAdapter(item -> {
+            Intent intent = new Intent(HistoryActivity.this, HistoryDetailActivity.class);
+            intent.putExtra("history_id", item.getId());
+            intent.putExtra("disease_name", item.getDiseaseName());
+            intent.putExtra("confidence", item.getConfidence());
+            intent.putExtra("health_status", item.getHealthStatus());
+            intent.putExtra("date", item.getFormattedDate());
+            intent.putExtra("image_path", item.getImagePath());
+            intent.putExtra("gradcam_path", item.getGradCamPath()); // Overlay saved by older versions
+            if (item.getActivationMap() != null) {
+                intent.putExtra("activation_map", item.getActivationMap());
+                intent.putExtra("map_rows", item.getMapRows());
+                intent.putExtra("map_cols", item.getMapCols());
             }
-            // Adapter creation
-            adapter = new HistoryAdapter(historyList, item -> {
-                Intent intent = new Intent(HistoryActivity.this, HistoryDetailActivity.class);
-                intent.putExtra("disease_name", item.getDiseaseName());
-                intent.putExtra("confidence", item.getConfidence());
-                intent.putExtra("health_status", item.getHealthStatus());
-                intent.putExtra("date", item.getFormattedDate());
-                intent.putExtra("image_path", item.getGradCamPath());
-
-                 // Include disease details if available
-                if (diseaseMap.containsKey(item.getDiseaseName())) {
-                    Disease disease = diseaseMap.get(item.getDiseaseName());
-                    intent.putExtra("description", disease.getDescription());
-                    intent.putExtra("symptoms", disease.getSymptoms());
-                    intent.putExtra("treatment", disease.getTreatment());
-                }
-                startActivity(intent);
 
-            });
-            recyclerView.setAdapter(adapter); // Show or hide "No history" message
-
-            // 👇 Add this block here
-            TextView emptyText = findViewById(R.id.textEmptyHistory);
-            if (historyList.isEmpty()) {
-                emptyText.setVisibility(View.VISIBLE);
-            } else {
-                emptyText.setVisibility(View.GONE);
+             // Include disease details if available
+            if (diseaseMap.containsKey(item.getDiseaseName())) {
+                Disease disease = diseaseMap.get(item.getDiseaseName());
+                intent.putExtra("description", disease.getDescription());
+                intent.putExtra("symptoms", disease.getSymptoms());
+                intent.putExtra("treatment", disease.getTreatment());
+            }
+            startActivity(intent);
+
+        });
+        recyclerView.setAdapter(adapter);
+
+        pagedSource = new HistoryPagedSource(HistoryRepository.getInstance(this), new HistoryPagedSource.Listener() {
+            @Override
+            public void onPageLoaded(List<HistoryItem> items, boolean endReached) {
+                adapter.submitList(items); // Diffed off the main thread by the adapter
+                // Show or hide "No history" message
+                emptyText.setVisibility(items.isEmpty() ? View.VISIBLE : View.GONE);
             }
 
-        } catch (Exception e) {
-            Toast.makeText(this, "Failed to load history.", Toast.LENGTH_LONG).show();
-            e.printStackTrace();
-        }
+            @Override
+            public void onLoadFailed(Exception e) {
+                Toast.makeText(HistoryActivity.this, "Failed to load history.", Toast.LENGTH_LONG).show();
+                e.printStackTrace();
+            }
+        });
+        pagedSource.loadNextPage();
     }
-    // Loads disease descriptions, symptoms, and treatments from the local JSON file
-    private void loadDiseaseData() {
-        try {
-            InputStream inputStream = getAssets().open("diseases.json");
-            Type type = new TypeToken<Map<String, Disease>>() {}.getType();
-            diseaseMap = new Gson().fromJson(new InputStreamReader(inputStream), type);
-            inputStream.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-            diseaseMap = new HashMap<>();
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (pagedSource != null) {
+            pagedSource.shutdown();
         }
     }
 
+    // Fetches disease descriptions, symptoms, and treatments from the shared knowledge base
+    private void loadDiseaseData() {
+        KnowledgeRepository.getInstance(this).load(new KnowledgeRepository.Callback() {
+            @Override
+            public void onLoaded(KnowledgeRepository knowledge) {
+                diseaseMap = knowledge.getLoadedDiseases();
+            }
 
+            @Override
+            public void onLoadFailed(Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
 }
@@ -3,25 +3,44 @@ package com.example.leafsmart;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * RecyclerView Adapter for display save history list.
+ * New pages are submitted as whole lists and diffed on a background thread.
  */
-public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
+public class HistoryAdapter extends ListAdapter<HistoryItem, HistoryAdapter.ViewHolder> {
 
     public interface OnItemClickListener {
         void onItemClick(HistoryItem item);
     }
 
-    private final List<HistoryItem> historyList; // Data source for the list
+    // Entries are identified by their database row id
+    private static final DiffUtil.ItemCallback<HistoryItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<HistoryItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HistoryItem oldItem, @NonNull HistoryItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HistoryItem oldItem, @NonNull HistoryItem newItem) {
+            return oldItem.getTimestamp() == newItem.getTimestamp()
+                    && oldItem.getConfidence() == newItem.getConfidence()
+                    && Objects.equals(oldItem.getDiseaseName(), newItem.getDiseaseName())
+                    && Objects.equals(oldItem.getPreviewPath(), newItem.getPreviewPath());
+        }
+    };
+
     private final OnItemClickListener listener; // Click listener callback
 
-    public HistoryAdapter(List<HistoryItem> historyList, OnItemClickListener listener) {
-        this.historyList = historyList;
+    public HistoryAdapter(OnItemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
     }
 
@@ -35,28 +54,26 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull HistoryAdapter.ViewHolder holder, int position) {
-        holder.bind(historyList.get(position), listener);
-    }
-
-    @Override
-    public int getItemCount() {
-        return historyList.size();
+        holder.bind(getItem(position), listener);
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView timestampText, diseaseText, confidenceText;
+        ImageView thumbnailView;
 
         public ViewHolder(View view) {
             super(view);
             timestampText = view.findViewById(R.id.textTimestamp);
             diseaseText = view.findViewById(R.id.textDiseaseName);
             confidenceText = view.findViewById(R.id.textConfidence);
+            thumbnailView = view.findViewById(R.id.imageThumbnail);
         }
 
         public void bind(final HistoryItem item, final OnItemClickListener listener) {
             timestampText.setText(item.getFormattedDate());
             diseaseText.setText(item.getDiseaseName());
             confidenceText.setText(String.format("Confidence: %.2f%%", item.getConfidence()));
+            ThumbnailCache.getInstance(itemView.getContext()).load(item.getPreviewPath(), thumbnailView);
             itemView.setOnClickListener(v -> listener.onItemClick(item));
         }
     }
@@ -0,0 +1,82 @@
+package com.example.leafsmart;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite schema for the detection history.
+ * One row per scan, indexed by timestamp for the newest-first list and by disease name.
+ * Version 2 adds the scan image path and view tracking used by StorageManager for eviction,
+ * version 3 the quantized activation map the Grad-CAM overlay is redrawn from.
+ */
+public class HistoryDatabase extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "history.db";
+    private static final int DATABASE_VERSION = 3;
+
+    static final String TABLE_HISTORY = "history";
+    static final String COLUMN_ID = "_id";
+    static final String COLUMN_TIMESTAMP = "timestamp";
+    static final String COLUMN_DISEASE_NAME = "disease_name";
+    static final String COLUMN_CONFIDENCE = "confidence";
+    static final String COLUMN_HEALTH_STATUS = "health_status";
+    static final String COLUMN_GRADCAM_PATH = "gradcam_path";
+    static final String COLUMN_IMAGE_PATH = "image_path"; // Scan image the overlay was made from
+    static final String COLUMN_VIEW_COUNT = "view_count";
+    static final String COLUMN_LAST_ACCESSED = "last_accessed"; // Saved or last opened, for LRU eviction
+    static final String COLUMN_CAM = "cam"; // ActivationMapCodec bytes, null for entries with a saved overlay
+    static final String COLUMN_CAM_ROWS = "cam_rows";
+    static final String COLUMN_CAM_COLS = "cam_cols";
+
+    public HistoryDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_HISTORY + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_TIMESTAMP + " INTEGER NOT NULL, "
+                + COLUMN_DISEASE_NAME + " TEXT NOT NULL, "
+                + COLUMN_CONFIDENCE + " REAL NOT NULL, "
+                + COLUMN_HEALTH_STATUS + " TEXT, "
+                + COLUMN_GRADCAM_PATH + " TEXT, "
+                + COLUMN_IMAGE_PATH + " TEXT, "
+                + COLUMN_VIEW_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_LAST_ACCESSED + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_CAM + " BLOB, "
+                + COLUMN_CAM_ROWS + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_CAM_COLS + " INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_history_timestamp ON " + TABLE_HISTORY
+                + " (" + COLUMN_TIMESTAMP + ")");
+        db.execSQL("CREATE INDEX idx_history_disease ON " + TABLE_HISTORY
+                + " (" + COLUMN_DISEASE_NAME + ", " + COLUMN_TIMESTAMP + ")");
+        createAccessIndex(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE_HISTORY + " ADD COLUMN " + COLUMN_IMAGE_PATH + " TEXT");
+            db.execSQL("ALTER TABLE " + TABLE_HISTORY + " ADD COLUMN " + COLUMN_VIEW_COUNT
+                    + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + TABLE_HISTORY + " ADD COLUMN " + COLUMN_LAST_ACCESSED
+                    + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE " + TABLE_HISTORY + " SET " + COLUMN_LAST_ACCESSED + " = " + COLUMN_TIMESTAMP);
+            createAccessIndex(db);
+        }
+        if (oldVersion < 3) {
+            db.execSQL("ALTER TABLE " + TABLE_HISTORY + " ADD COLUMN " + COLUMN_CAM + " BLOB");
+            db.execSQL("ALTER TABLE " + TABLE_HISTORY + " ADD COLUMN " + COLUMN_CAM_ROWS
+                    + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + TABLE_HISTORY + " ADD COLUMN " + COLUMN_CAM_COLS
+                    + " INTEGER NOT NULL DEFAULT 0");
+        }
+    }
+
+    // Least recently used (then least viewed) entries first
+    private static void createAccessIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX idx_history_access ON " + TABLE_HISTORY
+                + " (" + COLUMN_LAST_ACCESSED + ", " + COLUMN_VIEW_COUNT + ")");
+    }
+}
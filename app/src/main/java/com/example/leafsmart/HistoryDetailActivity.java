@@ -2,13 +2,8 @@ package com.example.leafsmart;
 
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Rect;
 import android.os.Bundle;
-import android.util.Log;
+import android.util.DisplayMetrics;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -17,6 +12,8 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * History activity in charge of display full details of a saved history entry.
@@ -25,6 +22,8 @@ import java.io.File;
  */
 
 public class HistoryDetailActivity extends AppCompatActivity {
+    private static final int DETAIL_IMAGE_HEIGHT_DP = 250; // Height of detailImageView
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -48,7 +47,11 @@ public class HistoryDetailActivity extends AppCompatActivity {
         String description = getIntent().getStringExtra("description");
         String symptoms = getIntent().getStringExtra("symptoms");
         String treatment = getIntent().getStringExtra("treatment");
-        String gradCamPath = getIntent().getStringExtra("image_path");
+        String imagePath = getIntent().getStringExtra("image_path");
+        String gradCamPath = getIntent().getStringExtra("gradcam_path"); // Only set for entries of older versions
+        byte[] activationMap = getIntent().getByteArrayExtra("activation_map");
+        int mapRows = getIntent().getIntExtra("map_rows", 0);
+        int mapCols = getIntent().getIntExtra("map_cols", 0);
 
         // Display data
         diseaseNameText.setText("Disease: " + diseaseName);
@@ -59,14 +62,18 @@ public class HistoryDetailActivity extends AppCompatActivity {
         symptomsText.setText("Symptoms:\n" + (symptoms != null ? symptoms : "N/A"));
         treatmentText.setText("Treatment:\n" + (treatment != null ? treatment : "N/A"));
 
-        // Load the Grad-CAM image (if it exits) to visually show the detected hotspot
+        // Count the visit so often-opened entries are evicted last
+        long historyId = getIntent().getLongExtra("history_id", -1);
+        if (historyId != -1) {
+            executorService.execute(() -> HistoryRepository.getInstance(this).markViewed(historyId));
+        }
+
+        // Load the Grad-CAM image (if it exits) to visually show the detected hotspot: redrawn from the
+        // stored activation map, or the saved overlay image for older entries
         if (gradCamPath != null && new File(gradCamPath).exists()) {
-            Bitmap gradCam = BitmapFactory.decodeFile(gradCamPath);
-            if (gradCam != null) {
-                detailImageView.setImageBitmap(gradCam); // Display Grad-CAM image
-            } else {
-                Toast.makeText(this, "Failed to decode image file.", Toast.LENGTH_SHORT).show();
-            }
+            showImage(gradCamPath, null, 0, 0, detailImageView);
+        } else if (imagePath != null && new File(imagePath).exists()) {
+            showImage(imagePath, activationMap, mapRows, mapCols, detailImageView);
         } else {
             Toast.makeText(this, "Image path not found or file is missing.", Toast.LENGTH_SHORT).show();
         }
@@ -79,4 +86,45 @@ public class HistoryDetailActivity extends AppCompatActivity {
             startActivity(intent);
         });
     }
+
+    // Shows the cached thumbnail straight away, then swaps in the full image decoded in the background,
+    // with the heatmap of activationMap (if any) composited over it
+    private void showImage(String imagePath, byte[] activationMap, int mapRows, int mapCols, ImageView imageView) {
+        ThumbnailCache thumbnails = ThumbnailCache.getInstance(this);
+        imageView.setImageBitmap(thumbnails.getCached(imagePath));
+
+        executorService.execute(() -> {
+            if (thumbnails.getCached(imagePath) == null) {
+                Bitmap thumbnail = thumbnails.loadBlocking(imagePath);
+                runOnUiThread(() -> {
+                    if (!isDestroyed() && thumbnail != null) imageView.setImageBitmap(thumbnail);
+                });
+            }
+
+            // Decode at roughly the view size rather than full resolution
+            DisplayMetrics metrics = getResources().getDisplayMetrics();
+            Bitmap decoded = ImageLoader.decodeSampledFile(imagePath, metrics.widthPixels,
+                    (int) (DETAIL_IMAGE_HEIGHT_DP * metrics.density));
+            Bitmap image = decoded;
+            if (decoded != null && activationMap != null && activationMap.length == mapRows * mapCols) {
+                image = HeatmapRenderer.composite(decoded,
+                        ActivationMapCodec.dequantize(activationMap), mapRows, mapCols);
+            }
+            Bitmap shown = image;
+            runOnUiThread(() -> {
+                if (isDestroyed()) return;
+                if (shown != null) {
+                    imageView.setImageBitmap(shown); // Display Grad-CAM image
+                } else {
+                    Toast.makeText(this, "Failed to decode image file.", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executorService.shutdownNow();
+    }
 }
\ No newline at end of file
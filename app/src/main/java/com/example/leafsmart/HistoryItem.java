@@ -7,14 +7,19 @@ import java.util.Locale;
 /**
  * Saved detection in the app history functionality.
  * Stores the detected disease, confidence score,
- * health status, timestamp information, and Grad-CAM image path.
+ * health status, timestamp information and the scan image. The Grad-CAM overlay is redrawn from a
+ * small quantized activation map; entries saved by older versions have an overlay image instead.
  */
 public class HistoryItem {
+    private long id; // Row id in the history database, 0 until saved
     private long timestamp;
     private String diseaseName;
     private float confidence;
     private String healthStatus;
-    private String gradCamPath;
+    private String gradCamPath; // Saved overlay image of older entries, null otherwise
+    private String imagePath; // Scan image the Grad-CAM overlay was made from
+    private byte[] activationMap; // ActivationMapCodec bytes of the top prediction
+    private int mapRows, mapCols;
 
     public HistoryItem(String diseaseName, float confidence, String healthStatus, long timestamp, String gradCamPath) {
         this.diseaseName = diseaseName;
@@ -24,11 +29,29 @@ public class HistoryItem {
         this.gradCamPath = gradCamPath;
     }
 
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
     public long getTimestamp() { return timestamp; }
     public String getDiseaseName() { return diseaseName; }
     public float getConfidence() { return confidence; }
     public String getHealthStatus() { return healthStatus; }
     public String getGradCamPath() { return gradCamPath; }
+    public String getImagePath() { return imagePath; }
+    public void setImagePath(String imagePath) { this.imagePath = imagePath; }
+    public byte[] getActivationMap() { return activationMap; }
+    public int getMapRows() { return mapRows; }
+    public int getMapCols() { return mapCols; }
+
+    public void setActivationMap(byte[] activationMap, int rows, int cols) {
+        this.activationMap = activationMap;
+        this.mapRows = rows;
+        this.mapCols = cols;
+    }
+
+    // Image shown for the entry in lists: the old overlay if there is one, else the scan image
+    public String getPreviewPath() {
+        return gradCamPath != null ? gradCamPath : imagePath;
+    }
 
     public String getFormattedDate() {
         Date date = new Date(timestamp);
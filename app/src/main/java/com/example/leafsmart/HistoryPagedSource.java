@@ -0,0 +1,88 @@
+package com.example.leafsmart;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the history list page by page on a background thread.
+ * Each page is fetched with a keyset query after the last loaded entry, so the first rows
+ * appear in constant time however large the history is.
+ */
+public class HistoryPagedSource {
+
+    public interface Listener {
+        // Called on the main thread with every entry loaded so far
+        void onPageLoaded(List<HistoryItem> items, boolean endReached);
+
+        void onLoadFailed(Exception e);
+    }
+
+    public static final int PAGE_SIZE = 30;
+
+    private final HistoryRepository repository;
+    private final Listener listener;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Main-thread state
+    private List<HistoryItem> loaded = Collections.emptyList();
+    private boolean loading;
+    private boolean endReached;
+    private int generation; // Bumped on reset so stale pages are dropped
+
+    public HistoryPagedSource(HistoryRepository repository, Listener listener) {
+        this.repository = repository;
+        this.listener = listener;
+    }
+
+    public boolean isEndReached() { return endReached; }
+
+    // Requests the next page unless one is already loading or everything is loaded
+    public void loadNextPage() {
+        if (loading || endReached) return;
+        loading = true;
+        HistoryItem last = loaded.isEmpty() ? null : loaded.get(loaded.size() - 1);
+        int requestGeneration = generation;
+        executor.execute(() -> {
+            try {
+                List<HistoryItem> page = repository.getPage(last, PAGE_SIZE);
+                mainHandler.post(() -> onPage(requestGeneration, page));
+            } catch (Exception e) {
+                mainHandler.post(() -> {
+                    if (requestGeneration != generation) return;
+                    loading = false;
+                    listener.onLoadFailed(e);
+                });
+            }
+        });
+    }
+
+    private void onPage(int requestGeneration, List<HistoryItem> page) {
+        if (requestGeneration != generation) return;
+        loading = false;
+        endReached = page.size() < PAGE_SIZE;
+        List<HistoryItem> items = new ArrayList<>(loaded.size() + page.size());
+        items.addAll(loaded);
+        items.addAll(page);
+        loaded = Collections.unmodifiableList(items);
+        listener.onPageLoaded(loaded, endReached);
+    }
+
+    // Forgets loaded pages, e.g. after the history was cleared
+    public void reset() {
+        generation++;
+        loaded = Collections.emptyList();
+        loading = false;
+        endReached = false;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.leafsmart;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single access point for the detection history, shared by ResultsActivity and HistoryActivity.
+ * Entries live in an indexed SQLite table, so saving a scan is one insert however long the history
+ * is. A history.json left by older versions is streamed into the table once, then removed.
+ * Call from a background thread.
+ */
+public final class HistoryRepository {
+    private static final String LEGACY_FILE = "history.json";
+
+    private static volatile HistoryRepository instance;
+
+    private final Context appContext;
+    private final HistoryDatabase database;
+    private boolean migrated; // Legacy JSON checked for this process
+
+    private HistoryRepository(Context appContext) {
+        this.appContext = appContext;
+        this.database = new HistoryDatabase(appContext);
+    }
+
+    public static HistoryRepository getInstance(Context context) {
+        HistoryRepository repository = instance;
+        if (repository == null) {
+            synchronized (HistoryRepository.class) {
+                repository = instance;
+                if (repository == null) {
+                    repository = new HistoryRepository(context.getApplicationContext());
+                    instance = repository;
+                }
+            }
+        }
+        return repository;
+    }
+
+    // Appends a scan and returns its row id
+    public long add(HistoryItem item) {
+        long id = db().insertOrThrow(HistoryDatabase.TABLE_HISTORY, null, toValues(item));
+        item.setId(id);
+        return id;
+    }
+
+    // Every entry, newest first
+    public List<HistoryItem> getAll() {
+        return query(null, null, null);
+    }
+
+    // Up to pageSize entries older than the given one (keyset paging), newest first; null starts at the newest
+    public List<HistoryItem> getPage(HistoryItem after, int pageSize) {
+        if (after == null) {
+            return query(null, null, String.valueOf(pageSize));
+        }
+        String timestamp = String.valueOf(after.getTimestamp());
+        return query(HistoryDatabase.COLUMN_TIMESTAMP + " < ? OR (" + HistoryDatabase.COLUMN_TIMESTAMP
+                        + " = ? AND " + HistoryDatabase.COLUMN_ID + " < ?)",
+                new String[]{timestamp, timestamp, String.valueOf(after.getId())},
+                String.valueOf(pageSize));
+    }
+
+    // Entries for one disease, newest first
+    public List<HistoryItem> getByDisease(String diseaseName) {
+        return query(HistoryDatabase.COLUMN_DISEASE_NAME + " = ?", new String[]{diseaseName}, null);
+    }
+
+    // Entries scanned in [fromMillis, toMillis), newest first
+    public List<HistoryItem> getBetween(long fromMillis, long toMillis) {
+        return query(HistoryDatabase.COLUMN_TIMESTAMP + " >= ? AND " + HistoryDatabase.COLUMN_TIMESTAMP + " < ?",
+                new String[]{String.valueOf(fromMillis), String.valueOf(toMillis)}, null);
+    }
+
+    // Entries in eviction order: least recently opened first, then least viewed
+    public List<HistoryItem> getLeastRecentlyUsed() {
+        return query(null, null, HistoryDatabase.COLUMN_LAST_ACCESSED + " ASC, "
+                + HistoryDatabase.COLUMN_VIEW_COUNT + " ASC", null);
+    }
+
+    // Records that an entry was opened, which moves it to the back of the eviction order
+    public void markViewed(long id) {
+        db().execSQL("UPDATE " + HistoryDatabase.TABLE_HISTORY + " SET "
+                        + HistoryDatabase.COLUMN_VIEW_COUNT + " = " + HistoryDatabase.COLUMN_VIEW_COUNT + " + 1, "
+                        + HistoryDatabase.COLUMN_LAST_ACCESSED + " = ? WHERE " + HistoryDatabase.COLUMN_ID + " = ?",
+                new Object[]{System.currentTimeMillis(), id});
+    }
+
+    // Every image path referenced by an entry
+    public Set<String> getReferencedPaths() {
+        Set<String> paths = new HashSet<>();
+        try (Cursor cursor = db().query(HistoryDatabase.TABLE_HISTORY,
+                new String[]{HistoryDatabase.COLUMN_GRADCAM_PATH, HistoryDatabase.COLUMN_IMAGE_PATH},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                if (!cursor.isNull(0)) paths.add(cursor.getString(0));
+                if (!cursor.isNull(1)) paths.add(cursor.getString(1));
+            }
+        }
+        return paths;
+    }
+
+    // Deletes the given entries in one transaction; returns how many were deleted
+    public int delete(List<HistoryItem> items) {
+        SQLiteDatabase db = db();
+        int deleted = 0;
+        db.beginTransaction();
+        try {
+            for (HistoryItem item : items) {
+                deleted += db.delete(HistoryDatabase.TABLE_HISTORY, HistoryDatabase.COLUMN_ID + " = ?",
+                        new String[]{String.valueOf(item.getId())});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return deleted;
+    }
+
+    public int count() {
+        try (Cursor cursor = db().rawQuery("SELECT COUNT(*) FROM " + HistoryDatabase.TABLE_HISTORY, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    // Removes every entry; returns how many were deleted
+    public int clear() {
+        return db().delete(HistoryDatabase.TABLE_HISTORY, null, null);
+    }
+
+    List<HistoryItem> query(String selection, String[] args, String limit) {
+        return query(selection, args,
+                HistoryDatabase.COLUMN_TIMESTAMP + " DESC, " + HistoryDatabase.COLUMN_ID + " DESC", limit);
+    }
+
+    List<HistoryItem> query(String selection, String[] args, String orderBy, String limit) {
+        List<HistoryItem> items = new ArrayList<>();
+        try (Cursor cursor = db().query(HistoryDatabase.TABLE_HISTORY, null, selection, args, null, null,
+                orderBy, limit)) {
+            int id = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_ID);
+            int timestamp = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_TIMESTAMP);
+            int diseaseName = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_DISEASE_NAME);
+            int confidence = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_CONFIDENCE);
+            int healthStatus = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_HEALTH_STATUS);
+            int gradCamPath = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_GRADCAM_PATH);
+            int imagePath = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_IMAGE_PATH);
+            int cam = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_CAM);
+            int camRows = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_CAM_ROWS);
+            int camCols = cursor.getColumnIndexOrThrow(HistoryDatabase.COLUMN_CAM_COLS);
+            while (cursor.moveToNext()) {
+                HistoryItem item = new HistoryItem(
+                        cursor.getString(diseaseName),
+                        cursor.getFloat(confidence),
+                        cursor.getString(healthStatus),
+                        cursor.getLong(timestamp),
+                        cursor.getString(gradCamPath));
+                item.setId(cursor.getLong(id));
+                item.setImagePath(cursor.getString(imagePath));
+                if (!cursor.isNull(cam)) {
+                    item.setActivationMap(cursor.getBlob(cam), cursor.getInt(camRows), cursor.getInt(camCols));
+                }
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    // Opens the database, migrating the legacy JSON history on first use
+    synchronized SQLiteDatabase db() {
+        SQLiteDatabase db = database.getWritableDatabase();
+        if (!migrated) {
+            migrateLegacyJson(db);
+            migrated = true;
+        }
+        return db;
+    }
+
+    // Streams history.json entry by entry into the table inside one transaction
+    private void migrateLegacyJson(SQLiteDatabase db) {
+        File file = new File(appContext.getFilesDir(), LEGACY_FILE);
+        if (!file.exists()) return;
+
+        Gson gson = new Gson();
+        db.beginTransaction();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    HistoryItem item = gson.fromJson(reader, HistoryItem.class);
+                    if (item != null && item.getDiseaseName() != null) {
+                        db.insertOrThrow(HistoryDatabase.TABLE_HISTORY, null, toValues(item));
+                    }
+                }
+                reader.endArray();
+            }
+            db.setTransactionSuccessful();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace(); // Keep the JSON so the migration is retried next launch
+            return;
+        } finally {
+            db.endTransaction();
+        }
+        file.delete();
+    }
+
+    private static ContentValues toValues(HistoryItem item) {
+        ContentValues values = new ContentValues();
+        values.put(HistoryDatabase.COLUMN_TIMESTAMP, item.getTimestamp());
+        values.put(HistoryDatabase.COLUMN_DISEASE_NAME, item.getDiseaseName());
+        values.put(HistoryDatabase.COLUMN_CONFIDENCE, item.getConfidence());
+        values.put(HistoryDatabase.COLUMN_HEALTH_STATUS, item.getHealthStatus());
+        values.put(HistoryDatabase.COLUMN_GRADCAM_PATH, item.getGradCamPath());
+        values.put(HistoryDatabase.COLUMN_IMAGE_PATH, item.getImagePath());
+        values.put(HistoryDatabase.COLUMN_LAST_ACCESSED, item.getTimestamp());
+        values.put(HistoryDatabase.COLUMN_CAM, item.getActivationMap());
+        values.put(HistoryDatabase.COLUMN_CAM_ROWS, item.getMapRows());
+        values.put(HistoryDatabase.COLUMN_CAM_COLS, item.getMapCols());
+        return values;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.leafsmart;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.net.Uri;
+import android.util.Size;
+
+import java.io.IOException;
+
+/**
+ * Decodes picked or captured photos at the sizes the app actually uses instead of full resolution.
+ * A scan needs a display-sized preview and a small source for the model; EXIF orientation is
+ * applied by ImageDecoder while decoding.
+ */
+public final class ImageLoader {
+    public static final int PREVIEW_MAX_SIDE = 1024; // Longest side of the preview/saved scan image
+    public static final int MODEL_SOURCE_MAX_SIDE = 448; // Twice the model input, enough for area averaging
+
+    // The two decoded sizes of one photo
+    public static final class ScanImage {
+        public final Bitmap preview; // Shown on screen and saved with the scan
+        public final Bitmap modelSource; // Fed to the preprocessor
+
+        ScanImage(Bitmap preview, Bitmap modelSource) {
+            this.preview = preview;
+            this.modelSource = modelSource;
+        }
+    }
+
+    private ImageLoader() {}
+
+    // Decodes a gallery/camera URI straight to preview size, upright, then derives the model source
+    public static ScanImage decodeForScan(ContentResolver resolver, Uri uri) throws IOException {
+        ImageDecoder.Source source = ImageDecoder.createSource(resolver, uri);
+        Bitmap preview = ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+            Size size = info.getSize();
+            float scale = fitScale(size.getWidth(), size.getHeight(), PREVIEW_MAX_SIDE);
+            if (scale < 1f) {
+                decoder.setTargetSize(
+                        Math.max(1, Math.round(size.getWidth() * scale)),
+                        Math.max(1, Math.round(size.getHeight() * scale)));
+            }
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE); // getPixels needs a software bitmap
+        });
+        return new ScanImage(preview, scaleWithin(preview, MODEL_SOURCE_MAX_SIDE));
+    }
+
+    // Decodes an image file subsampled so that it is at least reqWidth x reqHeight
+    public static Bitmap decodeSampledFile(String path, int reqWidth, int reqHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeFile(path, options);
+    }
+
+    // Largest power of two that keeps the decoded image at or above the requested size
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= reqWidth && height / (sampleSize * 2) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // Returns the bitmap itself when it already fits, otherwise a filtered downscale
+    public static Bitmap scaleWithin(Bitmap bitmap, int maxSide) {
+        float scale = fitScale(bitmap.getWidth(), bitmap.getHeight(), maxSide);
+        if (scale >= 1f) return bitmap;
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)), true);
+    }
+
+    private static float fitScale(int width, int height, int maxSide) {
+        int longest = Math.max(width, height);
+        return longest <= maxSide ? 1f : (float) maxSide / longest;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.leafsmart;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fused resize + normalise stage for the model input.
+ * Area-averages ARGB source pixels straight into the [row][col][RGB] float tensor in one pass,
+ * scaling by a precomputed reciprocal and writing each output row with a single bulk put.
+ * Rows can optionally be split into bands, each with a long-lived worker on an executor that is
+ * woken per call through park/unpark, so a banded call allocates nothing either. The caller runs
+ * band 0 and any band whose worker has not picked it up yet (or has been closed).
+ */
+public final class ImagePreprocessor {
+
+    private final int dstWidth;
+    private final int dstHeight;
+    private final Band[] bands; // Row ranges of the output, band 0 runs on the calling thread
+    private final AtomicInteger remaining = new AtomicInteger(); // Bands of the current call still running
+    private volatile int generation; // Bumped once per call to wake the workers
+    private volatile Thread caller; // Thread waiting in process(), unparked by the last band
+    private volatile Throwable failure; // First error of a band in the current call
+    private volatile boolean closed;
+
+    // Source box boundaries per output column/row, rebuilt only when the source size changes
+    private int cachedSrcWidth = -1;
+    private int cachedSrcHeight = -1;
+    private final int[] colStart;
+    private final int[] colEnd;
+    private final float[] colScale; // 1 / (255 * box width)
+    private final int[] rowStart;
+    private final int[] rowEnd;
+    private final float[] rowScale; // 1 / box height
+
+    // Source of the current call, read by the bands
+    private int[] srcPixels;
+    private int srcWidth;
+
+    // Single-threaded preprocessor writing into target
+    public ImagePreprocessor(int dstWidth, int dstHeight, FloatBuffer target) {
+        this(dstWidth, dstHeight, target, null, 1);
+    }
+
+    // Preprocessor that splits the output rows into bandCount bands run on executor
+    public ImagePreprocessor(int dstWidth, int dstHeight, FloatBuffer target,
+                             ExecutorService executor, int bandCount) {
+        if (target.capacity() < dstWidth * dstHeight * 3) {
+            throw new IllegalArgumentException("Target buffer too small for " + dstWidth + "x" + dstHeight);
+        }
+        this.dstWidth = dstWidth;
+        this.dstHeight = dstHeight;
+
+        int count = executor == null ? 1 : Math.max(1, Math.min(bandCount, dstHeight));
+        bands = new Band[count];
+        for (int i = 0; i < count; i++) {
+            int from = dstHeight * i / count;
+            int to = dstHeight * (i + 1) / count;
+            bands[i] = new Band(from, to, target.duplicate());
+        }
+
+        colStart = new int[dstWidth];
+        colEnd = new int[dstWidth];
+        colScale = new float[dstWidth];
+        rowStart = new int[dstHeight];
+        rowEnd = new int[dstHeight];
+        rowScale = new float[dstHeight];
+
+        for (int i = 1; i < count; i++) {
+            executor.execute(new Worker(bands[i]));
+        }
+    }
+
+    public int getDstWidth() { return dstWidth; }
+    public int getDstHeight() { return dstHeight; }
+
+    // Resizes the srcWidth x srcHeight ARGB pixels into the target tensor, scaled to 0..1.
+    // Not reentrant: callers serialise on the owning InferenceContext
+    public void process(int[] pixels, int srcWidth, int srcHeight) throws Exception {
+        if (pixels.length < srcWidth * srcHeight) {
+            throw new IllegalArgumentException("Pixel array smaller than " + srcWidth + "x" + srcHeight);
+        }
+        prepareBoxes(srcWidth, srcHeight);
+        this.srcPixels = pixels;
+        this.srcWidth = srcWidth;
+        caller = Thread.currentThread();
+        failure = null;
+        remaining.set(bands.length);
+        int current = ++generation; // Publishes the source and boxes to the workers
+        for (int i = 1; i < bands.length; i++) {
+            LockSupport.unpark(bands[i].worker);
+        }
+        for (Band band : bands) {
+            if (band.claim(current)) runBand(band);
+        }
+        while (remaining.get() > 0) {
+            LockSupport.park(this);
+        }
+        this.srcPixels = null;
+        Throwable error = failure;
+        if (error != null) throw new ExecutionException(error);
+    }
+
+    // Stops the workers once they are idle; later calls run every band on the calling thread
+    public void close() {
+        closed = true;
+        for (Band band : bands) {
+            LockSupport.unpark(band.worker);
+        }
+    }
+
+    private void runBand(Band band) {
+        try {
+            band.run();
+        } catch (Throwable t) {
+            failure = t;
+        }
+        if (remaining.decrementAndGet() == 0) {
+            LockSupport.unpark(caller);
+        }
+    }
+
+    // Computes which source pixels each output pixel averages over
+    private void prepareBoxes(int srcWidth, int srcHeight) {
+        if (srcWidth == cachedSrcWidth && srcHeight == cachedSrcHeight) return;
+        fillBoxes(srcWidth, dstWidth, colStart, colEnd, colScale, 255f);
+        fillBoxes(srcHeight, dstHeight, rowStart, rowEnd, rowScale, 1f);
+        cachedSrcWidth = srcWidth;
+        cachedSrcHeight = srcHeight;
+    }
+
+    private static void fillBoxes(int srcSize, int dstSize, int[] start, int[] end, float[] scale, float range) {
+        for (int d = 0; d < dstSize; d++) {
+            int s0 = (int) ((long) d * srcSize / dstSize);
+            int s1 = (int) ((long) (d + 1) * srcSize / dstSize);
+            if (s1 <= s0) s1 = Math.min(s0 + 1, srcSize); // Upscaling: nearest source pixel
+            if (s0 >= srcSize) s0 = srcSize - 1;
+            start[d] = s0;
+            end[d] = s1;
+            scale[d] = 1f / (range * (s1 - s0));
+        }
+    }
+
+    // Long-lived loop running one band per call, parked in between
+    private final class Worker implements Runnable {
+        private final Band band;
+
+        Worker(Band band) {
+            this.band = band;
+        }
+
+        @Override
+        public void run() {
+            band.worker = Thread.currentThread();
+            int seen = 0;
+            while (true) {
+                int current = generation;
+                if (current != seen) {
+                    seen = current;
+                    if (band.claim(current)) runBand(band);
+                } else if (closed || Thread.currentThread().isInterrupted()) {
+                    return;
+                } else {
+                    LockSupport.park(ImagePreprocessor.this);
+                }
+            }
+        }
+    }
+
+    // A contiguous range of output rows with its own scratch space
+    private final class Band implements Runnable {
+        private final int fromRow;
+        private final int toRow;
+        private final FloatBuffer out; // Private view of the shared target
+        private final int[] sumR = new int[dstWidth];
+        private final int[] sumG = new int[dstWidth];
+        private final int[] sumB = new int[dstWidth];
+        private final float[] row = new float[dstWidth * 3];
+        private final AtomicInteger claimed = new AtomicInteger(); // Last call this band was run for
+        private volatile Thread worker; // Null for band 0 or until its worker starts
+
+        // True for the one thread that gets to run this band in the given call
+        boolean claim(int call) {
+            int last = claimed.get();
+            return last != call && claimed.compareAndSet(last, call);
+        }
+
+        Band(int fromRow, int toRow, FloatBuffer out) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.out = out;
+        }
+
+        @Override
+        public void run() {
+            int[] pixels = srcPixels;
+            int stride = srcWidth;
+            for (int y = fromRow; y < toRow; y++) {
+                Arrays.fill(sumR, 0);
+                Arrays.fill(sumG, 0);
+                Arrays.fill(sumB, 0);
+
+                // Sum every source pixel of the boxes on this output row
+                for (int sy = rowStart[y]; sy < rowEnd[y]; sy++) {
+                    int base = sy * stride;
+                    for (int x = 0; x < dstWidth; x++) {
+                        int r = 0, g = 0, b = 0;
+                        for (int sx = base + colStart[x], last = base + colEnd[x]; sx < last; sx++) {
+                            int val = pixels[sx];
+                            r += (val >> 16) & 0xFF;
+                            g += (val >> 8) & 0xFF;
+                            b += val & 0xFF;
+                        }
+                        sumR[x] += r;
+                        sumG[x] += g;
+                        sumB[x] += b;
+                    }
+                }
+
+                // Average and normalise with one multiply per channel, then write the row in bulk
+                float rowFactor = rowScale[y];
+                int o = 0;
+                for (int x = 0; x < dstWidth; x++) {
+                    float scale = colScale[x] * rowFactor;
+                    row[o++] = sumR[x] * scale;
+                    row[o++] = sumG[x] * scale;
+                    row[o++] = sumB[x] * scale;
+                }
+                out.position(y * dstWidth * 3);
+                out.put(row);
+            }
+        }
+    }
+}
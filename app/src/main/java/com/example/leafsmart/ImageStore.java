@@ -0,0 +1,64 @@
+package com.example.leafsmart;
+
+import android.graphics.Bitmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content-addressed store for scan images.
+ * A scan is encoded to memory while hashed and saved as leaf_<sha256>.jpg, so re-scanning the same
+ * photo reuses the existing file instead of writing a new one. Files are shared between history
+ * entries and only deleted once no entry references them.
+ */
+public final class ImageStore {
+    private static final String PREFIX = "leaf_";
+
+    private ImageStore() {}
+
+    // Saves the scan image under its content hash; skips the write if the same image is already stored
+    public static File saveScanImage(File dir, Bitmap bitmap, int quality) throws IOException {
+        MessageDigest digest = sha256();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(bitmap.getWidth() * bitmap.getHeight() / 4);
+        try (DigestOutputStream out = new DigestOutputStream(bytes, digest)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out);
+        }
+
+        File file = new File(dir, PREFIX + toHex(digest.digest()) + ".jpg");
+        if (file.exists()) {
+            file.setLastModified(System.currentTimeMillis()); // Restarts the orphan grace period
+            return file;
+        }
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            bytes.writeTo(out);
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Failed to store " + file.getName());
+        }
+        return file;
+    }
+
+    static String toHex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = Character.forDigit((hash[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(hash[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Android runtime provides SHA-256
+        }
+    }
+}
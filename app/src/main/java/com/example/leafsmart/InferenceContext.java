@@ -0,0 +1,113 @@
+package com.example.leafsmart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reusable buffers for one model invocation.
+ * The input tensor, source pixel array and flat output tensors are allocated once for the
+ * model's shapes, so running a scan through this context allocates nothing.
+ */
+public final class InferenceContext {
+
+    // Runs the model on prepared inputs; implemented by InferenceEngine
+    public interface ModelRunner {
+        void run(Object[] inputs, Map<Integer, Object> outputs) throws IOException;
+    }
+
+    private final int inputWidth;
+    private final int inputHeight;
+    private int[] sourcePixels = new int[0]; // ARGB source pixels, grown to the largest source seen
+    private final ImagePreprocessor preprocessor; // Resizes + normalises sourcePixels into inputBuffer
+    private final ByteBuffer inputBuffer; // [1, h, w, 3] float32 model input
+    private final FloatBuffer inputFloats; // Float view over inputBuffer
+    private final ByteBuffer featureBuffer; // Flattened conv feature map output
+    private final FloatBuffer features; // Float view over featureBuffer
+    private final ByteBuffer predictionBuffer; // Softmax probabilities output
+    private final FloatBuffer predictions; // Float view over predictionBuffer
+    private final Object[] inputs; // Interpreter input array, reused
+    private final Map<Integer, Object> outputs; // Interpreter output map, reused
+
+    public InferenceContext(int[] inputShape, int[] featureShape, int[] predictionShape) {
+        this(inputShape, featureShape, predictionShape, null, 1);
+    }
+
+    // Context whose preprocessing splits rows into bandCount bands on executor
+    public InferenceContext(int[] inputShape, int[] featureShape, int[] predictionShape,
+                            ExecutorService executor, int bandCount) {
+        inputHeight = inputShape[1];
+        inputWidth = inputShape[2];
+
+        inputBuffer = allocateFloats(inputWidth * inputHeight * 3);
+        inputFloats = inputBuffer.asFloatBuffer();
+        preprocessor = new ImagePreprocessor(inputWidth, inputHeight, inputFloats, executor, bandCount);
+        featureBuffer = allocateFloats(elementCount(featureShape));
+        features = featureBuffer.asFloatBuffer();
+        predictionBuffer = allocateFloats(elementCount(predictionShape));
+        predictions = predictionBuffer.asFloatBuffer();
+
+        inputs = new Object[]{inputBuffer};
+        outputs = new HashMap<>();
+        outputs.put(InferenceEngine.FEATURE_OUTPUT, featureBuffer);
+        outputs.put(InferenceEngine.PREDICTION_OUTPUT, predictionBuffer);
+    }
+
+    public int getInputWidth() { return inputWidth; }
+    public int getInputHeight() { return inputHeight; }
+    public int getNumClasses() { return predictions.capacity(); }
+
+    // Pixel array with room for a width x height source (e.g. for Bitmap.getPixels)
+    public int[] obtainSourcePixels(int width, int height) {
+        if (sourcePixels.length < width * height) {
+            sourcePixels = new int[width * height];
+        }
+        return sourcePixels;
+    }
+
+    // Resizes the width x height source pixels into the input tensor, scaled to 0..1
+    public void preprocess(int width, int height) throws Exception {
+        preprocessor.process(sourcePixels, width, height);
+    }
+
+    // Stops the preprocessing workers; the context stays usable single-threaded
+    public void close() {
+        preprocessor.close();
+    }
+
+    // Runs the model from the prepared input into the reusable output buffers
+    public void run(ModelRunner runner) throws IOException {
+        inputBuffer.rewind();
+        featureBuffer.rewind();
+        predictionBuffer.rewind();
+        runner.run(inputs, outputs);
+        featureBuffer.rewind();
+        predictionBuffer.rewind();
+    }
+
+    // Model input tensor as floats, laid out [row][col][channel]
+    public FloatBuffer getInput() { return inputFloats; }
+
+    // Softmax probabilities of the last run, indexed by class
+    public FloatBuffer getPredictions() { return predictions; }
+
+    // Conv feature map of the last run, flattened as [row][col][channel]
+    public FloatBuffer getFeatures() { return features; }
+
+    // Raw bytes of the feature map, in native order
+    public ByteBuffer getFeatureBuffer() { return featureBuffer; }
+
+    private static ByteBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder());
+    }
+
+    private static int elementCount(int[] shape) {
+        int count = 1;
+        for (int dim : shape) count *= dim;
+        return count;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.leafsmart;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+import org.tensorflow.lite.Interpreter;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide TensorFlow Lite engine shared by every scan.
+ * It lazily maps the model, builds the interpreter and takes the labels from KnowledgeRepository,
+ * then keeps them until the system asks the app to trim its memory.
+ */
+public final class InferenceEngine implements ComponentCallbacks2 {
+    private static final String MODEL_FILE = "plant_disease_model_dual_output.tflite";
+    public static final int FEATURE_OUTPUT = 0; // Output index of the conv feature map
+    public static final int PREDICTION_OUTPUT = 1; // Output index of the softmax probabilities
+    private static final int PREPROCESS_BANDS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private static volatile InferenceEngine instance;
+
+    private final Context appContext;
+    private Interpreter interpreter; // TensorFlow Lite model interpreter, null until loaded
+    private List<String> labels; // Class labels, shared with KnowledgeRepository
+    private List<Disease> classes; // Metadata by class index, shared with KnowledgeRepository
+    private int[] inputShape; // e.g. [1, 224, 224, 3]
+    private int[] featureShape; // e.g. [1, 7, 7, 1280]
+    private int[] predictionShape; // e.g. [1, 38]
+    private InferenceContext context; // Reusable input/output buffers for the loaded model
+    private ExecutorService preprocessExecutor; // Extra threads for banded preprocessing
+    private CamEngine camEngine; // Classifier weights for class activation maps
+
+    private InferenceEngine(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    // Returns the shared engine, registering it for memory callbacks on first use
+    public static InferenceEngine getInstance(Context context) {
+        InferenceEngine engine = instance;
+        if (engine == null) {
+            synchronized (InferenceEngine.class) {
+                engine = instance;
+                if (engine == null) {
+                    Context app = context.getApplicationContext();
+                    engine = new InferenceEngine(app);
+                    app.registerComponentCallbacks(engine);
+                    instance = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    // Loads the model and labels if they are not loaded yet; cheap once loaded
+    public synchronized void ensureLoaded() throws IOException {
+        if (labels == null) {
+            KnowledgeRepository knowledge = KnowledgeRepository.getInstance(appContext); // Shared with the other screens
+            classes = knowledge.getClasses();
+            labels = knowledge.getLabels();
+        }
+        if (interpreter == null) {
+            interpreter = new Interpreter(mapModel());
+            inputShape = interpreter.getInputTensor(0).shape();
+            featureShape = interpreter.getOutputTensor(FEATURE_OUTPUT).shape();
+            predictionShape = interpreter.getOutputTensor(PREDICTION_OUTPUT).shape();
+        }
+    }
+
+    // Loads the model and runs it once on a blank input, so the first real scan does not pay for
+    // interpreter setup, buffer allocation or kernel preparation
+    public void warmUp() throws IOException {
+        InferenceContext context = getContext();
+        synchronized (context) { // Same lock order as a scan: context, then engine
+            FloatBuffer input = context.getInput();
+            for (int i = 0; i < input.capacity(); i++) {
+                input.put(i, 0f);
+            }
+            context.run(this::run);
+        }
+        getCamEngine();
+    }
+
+    public synchronized boolean isLoaded() {
+        return interpreter != null;
+    }
+
+    // Runs the model; the interpreter is not thread-safe so calls are serialised
+    public synchronized void run(Object[] inputs, Map<Integer, Object> outputs) throws IOException {
+        ensureLoaded();
+        interpreter.runForMultipleInputsOutputs(inputs, outputs);
+    }
+
+    // Returns the reusable buffers for the model; callers lock it for the whole scan
+    public synchronized InferenceContext getContext() throws IOException {
+        ensureLoaded();
+        if (context == null) {
+            if (preprocessExecutor == null && PREPROCESS_BANDS > 1) {
+                preprocessExecutor = Executors.newFixedThreadPool(PREPROCESS_BANDS - 1);
+            }
+            context = new InferenceContext(inputShape, featureShape, predictionShape,
+                    preprocessExecutor, PREPROCESS_BANDS);
+        }
+        return context;
+    }
+
+    // Class activation map weights, read once per model load
+    public synchronized CamEngine getCamEngine() throws IOException {
+        ensureLoaded();
+        if (camEngine == null) {
+            camEngine = CamEngine.load(appContext.getAssets(), mapModel(),
+                    predictionShape[predictionShape.length - 1], featureShape[featureShape.length - 1]);
+        }
+        return camEngine;
+    }
+
+    // Class metadata table indexed by model output index
+    public synchronized List<Disease> getClasses() throws IOException {
+        ensureLoaded();
+        return classes;
+    }
+
+    public synchronized List<String> getLabels() throws IOException {
+        ensureLoaded();
+        return labels;
+    }
+
+    public synchronized int[] getInputShape() throws IOException {
+        ensureLoaded();
+        return inputShape.clone();
+    }
+
+    public synchronized int[] getFeatureShape() throws IOException {
+        ensureLoaded();
+        return featureShape.clone();
+    }
+
+    public synchronized int[] getPredictionShape() throws IOException {
+        ensureLoaded();
+        return predictionShape.clone();
+    }
+
+    // Frees the native interpreter and buffers; the next scan reloads them
+    public synchronized void release() {
+        if (interpreter != null) {
+            interpreter.close();
+            interpreter = null;
+        }
+        if (context != null) {
+            context.close(); // Frees its preprocessing threads for the next context
+            context = null;
+        }
+        camEngine = null;
+    }
+
+    // Memory-maps the model file straight from the APK
+    private MappedByteBuffer mapModel() throws IOException {
+        try (AssetFileDescriptor afd = appContext.getAssets().openFd(MODEL_FILE);
+             FileInputStream fis = afd.createInputStream()) {
+            FileChannel fc = fis.getChannel();
+            return fc.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getDeclaredLength());
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            release();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        release();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // Not affected by configuration changes
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.leafsmart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of knowledge.pack, the binary form of diseases.json, labels.txt and plant_qa.json
+ * compiled by the compileKnowledgePack Gradle task. Records hold ids into a shared string table,
+ * and strings are decoded from the (memory-mapped) buffer only when first asked for.
+ *
+ * Layout, little-endian: magic, version, classCount, qaCount, stringCount; classCount records of
+ * (label, description, symptoms, treatment, tips, crop) string ids plus a flags int, in labels.txt
+ * order; qaCount records of (question, answer) ids; stringCount + 1 offsets into the UTF-8 string
+ * data; the string data.
+ */
+public final class KnowledgePack {
+    public static final String FILE_NAME = "knowledge.pack";
+    static final int MAGIC = 0x4C534B50; // "LSKP"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 20;
+    static final int CLASS_FIELDS = 7;
+    static final int QA_FIELDS = 2;
+    static final int FLAG_HEALTHY = 1;
+
+    private static final int LABEL = 0, DESCRIPTION = 1, SYMPTOMS = 2, TREATMENT = 3, TIPS = 4, CROP = 5, FLAGS = 6;
+    private static final int QUESTION = 0, ANSWER = 1;
+
+    private final ByteBuffer data;
+    private final int classCount;
+    private final int qaCount;
+    private final int stringCount;
+    private final int classBase;
+    private final int qaBase;
+    private final int offsetBase;
+    private final int stringBase;
+    private final String[] strings; // Decoded strings by id, filled on first access
+
+    public KnowledgePack(ByteBuffer buffer) throws IOException {
+        data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a knowledge pack");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported knowledge pack version " + data.getInt(4));
+        }
+        classCount = data.getInt(8);
+        qaCount = data.getInt(12);
+        stringCount = data.getInt(16);
+        if (classCount < 0 || qaCount < 0 || stringCount < 0) {
+            throw new IOException("Corrupt knowledge pack header");
+        }
+        classBase = HEADER_BYTES;
+        qaBase = classBase + classCount * CLASS_FIELDS * 4;
+        offsetBase = qaBase + qaCount * QA_FIELDS * 4;
+        stringBase = offsetBase + (stringCount + 1) * 4;
+        if (stringBase > data.capacity() || stringBase + data.getInt(offsetBase + stringCount * 4) > data.capacity()) {
+            throw new IOException("Truncated knowledge pack");
+        }
+        strings = new String[stringCount];
+    }
+
+    public int getClassCount() { return classCount; }
+    public int getQaCount() { return qaCount; }
+
+    public String getLabel(int classIndex) { return classField(classIndex, LABEL); }
+    public String getDescription(int classIndex) { return classField(classIndex, DESCRIPTION); }
+    public String getSymptoms(int classIndex) { return classField(classIndex, SYMPTOMS); }
+    public String getTreatment(int classIndex) { return classField(classIndex, TREATMENT); }
+    public String getTips(int classIndex) { return classField(classIndex, TIPS); }
+    public String getCrop(int classIndex) { return classField(classIndex, CROP); }
+    public boolean isHealthy(int classIndex) { return (classInt(classIndex, FLAGS) & FLAG_HEALTHY) != 0; }
+
+    public String getQuestion(int index) { return qaField(index, QUESTION); }
+    public String getAnswer(int index) { return qaField(index, ANSWER); }
+
+    private String classField(int classIndex, int field) {
+        return string(classInt(classIndex, field));
+    }
+
+    private int classInt(int classIndex, int field) {
+        if (classIndex < 0 || classIndex >= classCount) throw new IndexOutOfBoundsException("class " + classIndex);
+        return data.getInt(classBase + (classIndex * CLASS_FIELDS + field) * 4);
+    }
+
+    private String qaField(int index, int field) {
+        if (index < 0 || index >= qaCount) throw new IndexOutOfBoundsException("qa " + index);
+        return string(data.getInt(qaBase + (index * QA_FIELDS + field) * 4));
+    }
+
+    // Decodes string id once; later calls return the cached copy
+    private synchronized String string(int id) {
+        if (id < 0 || id >= stringCount) throw new IndexOutOfBoundsException("string " + id);
+        String value = strings[id];
+        if (value == null) {
+            int start = data.getInt(offsetBase + id * 4);
+            int end = data.getInt(offsetBase + (id + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = data.duplicate();
+            view.position(stringBase + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.leafsmart;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Application-wide, read-only copy of the bundled knowledge base: diseases.json, labels.txt and
+ * plant_qa.json, compiled at build time into knowledge.pack. The pack is memory-mapped on first use
+ * and each view is built from it once per process, then shared by every screen. The blocking
+ * getters must be called off the main thread; screens use load() instead.
+ */
+public final class KnowledgeRepository {
+    public interface Callback {
+        // Called on the main thread once every asset is parsed
+        void onLoaded(KnowledgeRepository knowledge);
+
+        void onLoadFailed(Exception e);
+    }
+
+    private static volatile KnowledgeRepository instance;
+
+    private final Context appContext;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private KnowledgePack pack; // Mapped on first use
+    // Views of the pack, immutable once set
+    private volatile List<Disease> classes; // Metadata by model class index
+    private volatile Map<String, Disease> diseases;
+    private volatile List<String> labels;
+    private volatile Map<String, String> qa;
+    private volatile QaRetriever qaRetriever;
+    private volatile QaCategoryIndex qaCategories;
+
+    private KnowledgeRepository(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static KnowledgeRepository getInstance(Context context) {
+        KnowledgeRepository repository = instance;
+        if (repository == null) {
+            synchronized (KnowledgeRepository.class) {
+                repository = instance;
+                if (repository == null) {
+                    repository = new KnowledgeRepository(context.getApplicationContext());
+                    instance = repository;
+                }
+            }
+        }
+        return repository;
+    }
+
+    // Parses anything not loaded yet in the background, then calls back on the main thread
+    public void load(Callback callback) {
+        if (isLoaded()) {
+            callback.onLoaded(this);
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                getClasses();
+                getDiseases();
+                getLabels();
+                getQa();
+                getQaRetriever();
+                getQaCategories();
+                mainHandler.post(() -> callback.onLoaded(this));
+            } catch (Exception e) {
+                mainHandler.post(() -> callback.onLoadFailed(e));
+            }
+        });
+    }
+
+    public boolean isLoaded() {
+        return classes != null && diseases != null && labels != null && qa != null && qaRetriever != null
+                && qaCategories != null;
+    }
+
+    public List<Disease> getLoadedClasses() {
+        List<Disease> result = classes;
+        return result != null ? result : Collections.<Disease>emptyList();
+    }
+
+    // Non-blocking views for the main thread, e.g. inside onLoaded(); empty until parsed
+    public Map<String, Disease> getLoadedDiseases() {
+        Map<String, Disease> result = diseases;
+        return result != null ? result : Collections.emptyMap();
+    }
+
+    public Map<String, String> getLoadedQa() {
+        Map<String, String> result = qa;
+        return result != null ? result : Collections.emptyMap();
+    }
+
+    public QaRetriever getLoadedQaRetriever() {
+        QaRetriever result = qaRetriever;
+        return result != null ? result : new QaRetriever(Collections.<String, String>emptyMap());
+    }
+
+    public QaCategoryIndex getLoadedQaCategories() {
+        QaCategoryIndex result = qaCategories;
+        return result != null ? result : new QaCategoryIndex(Collections.<String>emptyList());
+    }
+
+    // Metadata of every model class, indexed by class id, so a prediction resolves with one array access
+    public List<Disease> getClasses() throws IOException {
+        List<Disease> result = classes;
+        if (result == null) {
+            synchronized (this) {
+                result = classes;
+                if (result == null) {
+                    KnowledgePack pack = pack();
+                    Disease[] table = new Disease[pack.getClassCount()];
+                    for (int i = 0; i < table.length; i++) {
+                        table[i] = new Disease(i, pack.getLabel(i), pack.getDescription(i), pack.getSymptoms(i),
+                                pack.getTreatment(i), pack.getTips(i), pack.getCrop(i), pack.isHealthy(i));
+                    }
+                    result = Collections.unmodifiableList(Arrays.asList(table));
+                    classes = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Disease details by label, in labels.txt order, for entries that only kept the name (e.g. history)
+    public Map<String, Disease> getDiseases() throws IOException {
+        Map<String, Disease> result = diseases;
+        if (result == null) {
+            synchronized (this) {
+                result = diseases;
+                if (result == null) {
+                    Map<String, Disease> map = new LinkedHashMap<>();
+                    for (Disease disease : getClasses()) {
+                        map.put(disease.getLabel(), disease);
+                    }
+                    result = Collections.unmodifiableMap(map);
+                    diseases = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Class labels in model output order
+    public List<String> getLabels() throws IOException {
+        List<String> result = labels;
+        if (result == null) {
+            synchronized (this) {
+                result = labels;
+                if (result == null) {
+                    List<String> list = new ArrayList<>();
+                    for (Disease disease : getClasses()) {
+                        list.add(disease.getLabel());
+                    }
+                    result = Collections.unmodifiableList(list);
+                    labels = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Chatbot questions and answers, in file order
+    public Map<String, String> getQa() throws IOException {
+        Map<String, String> result = qa;
+        if (result == null) {
+            synchronized (this) {
+                result = qa;
+                if (result == null) {
+                    KnowledgePack pack = pack();
+                    Map<String, String> map = new LinkedHashMap<>();
+                    for (int i = 0; i < pack.getQaCount(); i++) {
+                        map.put(pack.getQuestion(i), pack.getAnswer(i));
+                    }
+                    result = Collections.unmodifiableMap(map);
+                    qa = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Chatbot questions indexed for ranked lookup, built once from getQa()
+    public QaRetriever getQaRetriever() throws IOException {
+        QaRetriever result = qaRetriever;
+        if (result == null) {
+            synchronized (this) {
+                result = qaRetriever;
+                if (result == null) {
+                    result = new QaRetriever(getQa());
+                    qaRetriever = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Chatbot quick-access categories, built once from the keys of getQa()
+    public QaCategoryIndex getQaCategories() throws IOException {
+        QaCategoryIndex result = qaCategories;
+        if (result == null) {
+            synchronized (this) {
+                result = qaCategories;
+                if (result == null) {
+                    result = new QaCategoryIndex(getQa().keySet());
+                    qaCategories = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Memory-maps knowledge.pack from the APK, where it is stored uncompressed
+    private synchronized KnowledgePack pack() throws IOException {
+        if (pack == null) {
+            try (AssetFileDescriptor afd = appContext.getAssets().openFd(KnowledgePack.FILE_NAME);
+                 FileInputStream fis = afd.createInputStream()) {
+                FileChannel channel = fis.getChannel();
+                pack = new KnowledgePack(channel.map(FileChannel.MapMode.READ_ONLY,
+                        afd.getStartOffset(), afd.getDeclaredLength()));
+            }
+        }
+        return pack;
+    }
+}
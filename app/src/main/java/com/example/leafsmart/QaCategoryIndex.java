@@ -0,0 +1,83 @@
+package com.example.leafsmart;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Chatbot quick-access categories and the stored questions in each, computed once from the Q&A keys.
+ * Keys are tokenized once and every distinct word is matched against the category keywords, so the
+ * work grows with the vocabulary rather than with keys times categories.
+ */
+public final class QaCategoryIndex {
+    public static final class Category {
+        private final String title;
+        private final List<String> keys;
+
+        Category(String title, List<String> keys) {
+            this.title = title;
+            this.keys = keys;
+        }
+
+        public String getTitle() { return title; }
+        // Stored questions of the category, in plant_qa.json order
+        public List<String> getKeys() { return keys; }
+    }
+
+    // Title followed by its keywords; a key belongs to a category if one of its words contains a keyword
+    static final String[][] GROUPS = {
+            {"🍅 Tomato", "tomato"},
+            {"🍎 Apple", "apple"},
+            {"🍇 Grape", "grape"},
+            {"🌽 Corn", "corn"},
+            {"🌶️ Pepper", "pepper"},
+            {"🥔 Potato", "potato"},
+            {"🍓 Strawberry", "strawberry"},
+            {"🪴 General Care", "care"},
+            {"🧪 Tips & Healthy", "tips", "healthy"},
+            {"🧬 Show Commands", "show"}};
+
+    private final List<Category> categories;
+
+    public QaCategoryIndex(Collection<String> keys) {
+        this(GROUPS, keys);
+    }
+
+    QaCategoryIndex(String[][] groups, Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        // Distinct word -> positions of the keys containing it
+        Map<String, List<Integer>> words = new HashMap<>();
+        for (int k = 0; k < keyList.size(); k++) {
+            for (String word : TextNormalizer.tokenize(keyList.get(k))) {
+                List<Integer> positions = words.get(word);
+                if (positions == null) {
+                    positions = new ArrayList<>();
+                    words.put(word, positions);
+                }
+                positions.add(k);
+            }
+        }
+
+        List<Category> result = new ArrayList<>();
+        for (String[] group : groups) {
+            TreeSet<Integer> matched = new TreeSet<>(); // Keeps file order, drops keys hit by two keywords
+            for (int i = 1; i < group.length; i++) {
+                for (Map.Entry<String, List<Integer>> word : words.entrySet()) {
+                    if (word.getKey().contains(group[i])) matched.addAll(word.getValue());
+                }
+            }
+            if (matched.isEmpty()) continue; // No header for empty categories
+            List<String> categoryKeys = new ArrayList<>(matched.size());
+            for (int k : matched) categoryKeys.add(keyList.get(k));
+            result.add(new Category(group[0], Collections.unmodifiableList(categoryKeys)));
+        }
+        categories = Collections.unmodifiableList(result);
+    }
+
+    // Non-empty categories in display order
+    public List<Category> getCategories() { return categories; }
+}
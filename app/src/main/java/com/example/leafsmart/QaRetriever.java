@@ -0,0 +1,193 @@
+package com.example.leafsmart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ranks the chatbot's stored questions against a user question with BM25.
+ * Keys are normalised once into an inverted index, so a lookup only scores the entries that share
+ * a word with the question; plurals and partial words ("tomatoes", "bacteri") count as weaker hits.
+ * The confidence of a match is the share of the stored question's (idf-weighted) words it covers.
+ * findSimilar() is the typo-tolerant fallback over the whole stored questions.
+ */
+public final class QaRetriever {
+    public static final class Match {
+        private final String key;
+        private final String answer;
+        private final float score;
+        private final float confidence;
+
+        Match(String key, String answer, float score, float confidence) {
+            this.key = key;
+            this.answer = answer;
+            this.score = score;
+            this.confidence = confidence;
+        }
+
+        public String getKey() { return key; }
+        public String getAnswer() { return answer; }
+        public float getScore() { return score; }
+        // 0..1: how much of the stored question the user's question covers
+        public float getConfidence() { return confidence; }
+    }
+
+    public static final double MIN_SIMILARITY = 0.6; // Lowest similarity findSimilar() accepts
+    private static final float K1 = 1.2f, B = 0.75f; // Usual BM25 parameters
+    private static final float PARTIAL = 0.5f; // Weight of a word that only shares a prefix
+    private static final int MIN_PARTIAL = 3; // Shortest prefix that counts as a partial hit
+
+    private final String[] keys;
+    private final String[] answers;
+    private final String[] terms; // Sorted dictionary
+    private final Map<String, Integer> termIds;
+    private final int[][] postingDocs; // Per term: entries containing it, ascending
+    private final int[][] postingTf; // Per term and entry: occurrences
+    private final float[] idf;
+    private final float[] lengthNorm; // Per entry: K1 * (1 - B + B * length / averageLength)
+    private final float[] keyWeight; // Per entry: idf sum of its distinct words
+    private final FuzzyMatcher fuzzy; // Over the normalised keys
+
+    // Scratch, reused across lookups
+    private final float[] score;
+    private final float[] covered;
+    private final int[] stamp;
+    private int serial;
+
+    public QaRetriever(Map<String, String> qa) {
+        int count = qa.size();
+        keys = new String[count];
+        answers = new String[count];
+        int[] length = new int[count];
+        List<String> normalizedKeys = new ArrayList<>(count);
+        TreeMap<String, LinkedHashMap<Integer, Integer>> postings = new TreeMap<>();
+        long totalLength = 0;
+        int doc = 0;
+        for (Map.Entry<String, String> entry : qa.entrySet()) {
+            keys[doc] = entry.getKey();
+            answers[doc] = entry.getValue();
+            normalizedKeys.add(TextNormalizer.normalize(entry.getKey()));
+            List<String> tokens = TextNormalizer.tokenize(entry.getKey());
+            length[doc] = tokens.size();
+            totalLength += tokens.size();
+            for (String token : tokens) {
+                LinkedHashMap<Integer, Integer> docs = postings.get(token);
+                if (docs == null) {
+                    docs = new LinkedHashMap<>();
+                    postings.put(token, docs);
+                }
+                Integer tf = docs.get(doc);
+                docs.put(doc, tf == null ? 1 : tf + 1);
+            }
+            doc++;
+        }
+
+        terms = postings.keySet().toArray(new String[0]);
+        termIds = new HashMap<>(terms.length * 2);
+        postingDocs = new int[terms.length][];
+        postingTf = new int[terms.length][];
+        idf = new float[terms.length];
+        keyWeight = new float[count];
+        int t = 0;
+        for (Map.Entry<String, LinkedHashMap<Integer, Integer>> entry : postings.entrySet()) {
+            Map<Integer, Integer> docs = entry.getValue();
+            termIds.put(entry.getKey(), t);
+            postingDocs[t] = new int[docs.size()];
+            postingTf[t] = new int[docs.size()];
+            // Non-negative variant of the BM25 idf, so words present in most entries still count a little
+            idf[t] = (float) Math.log(1 + (count - docs.size() + 0.5) / (docs.size() + 0.5));
+            int i = 0;
+            for (Map.Entry<Integer, Integer> posting : docs.entrySet()) {
+                postingDocs[t][i] = posting.getKey();
+                postingTf[t][i] = posting.getValue();
+                keyWeight[posting.getKey()] += idf[t];
+                i++;
+            }
+            t++;
+        }
+
+        float averageLength = count > 0 ? Math.max(1f, (float) totalLength / count) : 1f;
+        lengthNorm = new float[count];
+        for (int d = 0; d < count; d++) {
+            lengthNorm[d] = K1 * (1 - B + B * length[d] / averageLength);
+        }
+
+        score = new float[count];
+        covered = new float[count];
+        stamp = new int[count];
+        fuzzy = new FuzzyMatcher(normalizedKeys, MIN_SIMILARITY);
+    }
+
+    public int size() { return keys.length; }
+
+    // Best-ranked entry for the question, or null when no stored question shares a word with it
+    public synchronized Match find(String question) {
+        Map<Integer, Float> matched = matchTerms(TextNormalizer.tokenize(question));
+        if (matched.isEmpty()) return null;
+
+        serial++;
+        int best = -1;
+        for (Map.Entry<Integer, Float> entry : matched.entrySet()) {
+            int t = entry.getKey();
+            float weight = entry.getValue() * idf[t];
+            int[] docs = postingDocs[t];
+            int[] tfs = postingTf[t];
+            for (int i = 0; i < docs.length; i++) {
+                int doc = docs[i];
+                if (stamp[doc] != serial) {
+                    stamp[doc] = serial;
+                    score[doc] = 0f;
+                    covered[doc] = 0f;
+                }
+                float tf = tfs[i];
+                score[doc] += weight * tf * (K1 + 1) / (tf + lengthNorm[doc]);
+                covered[doc] += weight;
+                // Ties go to the entry listed first in plant_qa.json
+                if (best < 0 || score[doc] > score[best] || (score[doc] == score[best] && doc < best)) {
+                    best = doc;
+                }
+            }
+        }
+        float confidence = keyWeight[best] > 0f ? Math.min(1f, covered[best] / keyWeight[best]) : 0f;
+        return new Match(keys[best], answers[best], score[best], confidence);
+    }
+
+    // Stored question most similar to the whole input (confidence = similarity), or null below MIN_SIMILARITY
+    public Match findSimilar(String question) {
+        FuzzyMatcher.Result result = fuzzy.findBest(TextNormalizer.normalize(question));
+        if (result == null) return null;
+        int doc = result.getIndex();
+        return new Match(keys[doc], answers[doc], result.getSimilarity(), result.getSimilarity());
+    }
+
+    // Dictionary terms hit by the question, with the best weight each: 1 for the same word, PARTIAL for a shared prefix
+    private Map<Integer, Float> matchTerms(List<String> tokens) {
+        Map<Integer, Float> matched = new HashMap<>();
+        for (String token : tokens) {
+            Integer exact = termIds.get(token);
+            if (exact != null) matched.put(exact, 1f);
+        }
+        List<Integer> partial = new ArrayList<>();
+        for (String token : tokens) {
+            // Stored words the question word starts with ("tomatoes" -> "tomato")
+            for (int end = MIN_PARTIAL; end < token.length(); end++) {
+                Integer id = termIds.get(token.substring(0, end));
+                if (id != null) partial.add(id);
+            }
+            // Stored words starting with the question word ("bacteri" -> "bacterial")
+            if (token.length() >= MIN_PARTIAL) {
+                int from = Arrays.binarySearch(terms, token);
+                from = from < 0 ? -from - 1 : from + 1;
+                for (int t = from; t < terms.length && terms[t].startsWith(token); t++) partial.add(t);
+            }
+        }
+        for (int id : partial) {
+            if (!matched.containsKey(id)) matched.put(id, PARTIAL);
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.leafsmart;
+
+/**
+ * Outcome of one scan handed from DetectionActivity to ResultsActivity.
+ * Holds the top predictions and one class activation map per prediction for the heatmap.
+ */
+public class ScanResult {
+    private final long scanId;
+    private final int[] classIndices; // Top predicted classes, best first
+    private final String[] diseaseNames; // Labels of classIndices
+    private final float[] confidences; // Probabilities of classIndices
+    private final String imagePath; // Saved scan image
+    private final int featureHeight; // Activation grid rows, e.g. 7
+    private final int featureWidth; // Activation grid columns, e.g. 7
+    private final float[][] classMaps; // Normalised map per class index, [row * featureWidth + col]; null if unavailable
+
+    public ScanResult(long scanId, int[] classIndices, String[] diseaseNames, float[] confidences,
+                      String imagePath, int featureHeight, int featureWidth, float[][] classMaps) {
+        this.scanId = scanId;
+        this.classIndices = classIndices;
+        this.diseaseNames = diseaseNames;
+        this.confidences = confidences;
+        this.imagePath = imagePath;
+        this.featureHeight = featureHeight;
+        this.featureWidth = featureWidth;
+        this.classMaps = classMaps;
+    }
+
+    public long getScanId() { return scanId; }
+    public int[] getClassIndices() { return classIndices; }
+    public String[] getDiseaseNames() { return diseaseNames; }
+    public float[] getConfidences() { return confidences; }
+    public String getImagePath() { return imagePath; }
+    public int getFeatureHeight() { return featureHeight; }
+    public int getFeatureWidth() { return featureWidth; }
+    public float[][] getClassMaps() { return classMaps; }
+}
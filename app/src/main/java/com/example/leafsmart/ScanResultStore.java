@@ -0,0 +1,98 @@
+package com.example.leafsmart;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process hand-off of scan results keyed by scan ID.
+ * ResultsActivity reads the prediction and activation maps from memory; the maps are also
+ * written to one small file so they survive the process being killed.
+ */
+public final class ScanResultStore {
+    private static final String FALLBACK_FILE = "last_scan.bin";
+    private static final int MAGIC = 0x4C53434D; // "LSCM"
+    private static final int HEADER_BYTES = 4 + 8 + 4 + 4 * 3;
+    private static final int MAX_RESULTS = 4; // Recent scans kept in memory
+
+    private static final Map<Long, ScanResult> results = new LinkedHashMap<Long, ScanResult>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ScanResult> eldest) {
+            return size() > MAX_RESULTS;
+        }
+    };
+
+    private ScanResultStore() {}
+
+    public static synchronized void put(ScanResult result) {
+        results.put(result.getScanId(), result);
+    }
+
+    public static synchronized ScanResult get(long scanId) {
+        return results.get(scanId);
+    }
+
+    // Writes the activation maps of scanId (one per class index) in one write
+    public static void persist(File dir, long scanId, int height, int width, float[][] classMaps)
+            throws IOException {
+        int cells = height * width;
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + classMaps.length * cells * 4);
+        data.putInt(MAGIC)
+                .putLong(scanId)
+                .putInt(height).putInt(width).putInt(classMaps.length);
+        for (float[] map : classMaps) {
+            data.asFloatBuffer().put(map, 0, cells);
+            data.position(data.position() + cells * 4);
+        }
+        data.flip();
+
+        File tmp = new File(dir, FALLBACK_FILE + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             FileChannel channel = fos.getChannel()) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        if (!tmp.renameTo(new File(dir, FALLBACK_FILE))) {
+            throw new IOException("Could not replace " + FALLBACK_FILE);
+        }
+    }
+
+    // Rebuilds a result after process death from the persisted activation maps; null if unavailable
+    public static ScanResult restore(File dir, long scanId, int[] classIndices, String[] diseaseNames,
+                                     float[] confidences, String imagePath) {
+        File file = new File(dir, FALLBACK_FILE);
+        if (!file.exists()) return null;
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC || mapped.getLong() != scanId) {
+                return null;
+            }
+            int height = mapped.getInt();
+            int width = mapped.getInt();
+            int count = mapped.getInt();
+            if (classIndices == null || count != classIndices.length) return null;
+            float[][] classMaps = new float[count][height * width];
+            FloatBuffer floats = mapped.asFloatBuffer();
+            for (float[] map : classMaps) {
+                floats.get(map);
+            }
+
+            ScanResult result = new ScanResult(scanId, classIndices, diseaseNames, confidences,
+                    imagePath, height, width, classMaps);
+            put(result);
+            return result;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
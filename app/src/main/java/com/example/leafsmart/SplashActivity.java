@@ -3,25 +3,94 @@ package com.example.leafsmart;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * SplashActivity displays the splash screen for the LeafSmart application.
- * It shows the app logo and a loading animation while initializing the app.
+ * It shows the app logo while warming up the app in parallel: the knowledge base, the model (with one
+ * dummy inference) and the history database. It moves on once the knowledge base and the model are
+ * loaded, or after MAX_WAIT_MS at most; the rest of the warm-up continues in the background.
  */
 
 public class SplashActivity extends AppCompatActivity {
+    private static final long MAX_WAIT_MS = 2000; // Never slower than the old fixed splash delay
+    private static final int CRITICAL_TASKS = 2; // Knowledge base and model interpreter
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService warmUpExecutor = Executors.newFixedThreadPool(2);
+    private int pendingCritical = CRITICAL_TASKS; // Main thread only
+    private boolean navigated;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
 
-        // Delay for 2 seconds then open MainActivity
-        new Handler().postDelayed(() -> {
-            Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-            startActivity(intent);
-            finish();  // Close the splash screen
-        }, 2000); // Set a delay time of 2000 milliseconds = 2 seconds
+        // Knowledge base: diseases, labels and chatbot indexes (loads on its own thread)
+        KnowledgeRepository.getInstance(this).load(new KnowledgeRepository.Callback() {
+            @Override
+            public void onLoaded(KnowledgeRepository knowledge) {
+                onCriticalTaskDone();
+            }
+
+            @Override
+            public void onLoadFailed(Exception e) {
+                e.printStackTrace(); // Screens retry on their own
+                onCriticalTaskDone();
+            }
+        });
+
+        // Model: map it and build the interpreter, then prime it with one dummy inference
+        warmUpExecutor.execute(() -> {
+            InferenceEngine engine = InferenceEngine.getInstance(this);
+            try {
+                engine.ensureLoaded();
+            } catch (Exception e) {
+                e.printStackTrace(); // The first scan retries the load
+            }
+            mainHandler.post(this::onCriticalTaskDone);
+            try {
+                engine.warmUp();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+
+        // History: open (and if needed upgrade or migrate) the database
+        warmUpExecutor.execute(() -> {
+            try {
+                HistoryRepository.getInstance(this).count();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+
+        // Upper bound, in case a warm-up step is slow
+        mainHandler.postDelayed(this::openMainMenu, MAX_WAIT_MS);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mainHandler.removeCallbacksAndMessages(null);
+        warmUpExecutor.shutdown(); // Lets the started warm-up finish after the splash closes
+    }
+
+    private void onCriticalTaskDone() {
+        if (--pendingCritical == 0) {
+            openMainMenu();
+        }
+    }
+
+    private void openMainMenu() {
+        if (navigated || isFinishing()) return;
+        navigated = true;
+        Intent intent = new Intent(SplashActivity.this, MainActivity.class);
+        startActivity(intent);
+        finish();  // Close the splash screen
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,187 @@
+package com.example.leafsmart;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the saved scan images (leaf_* files) within a byte and entry budget.
+ * Trimming runs on a background thread: it sweeps files no history entry references, then evicts
+ * the least recently opened (and least viewed) entries until the budget fits, deleting rows in one
+ * transaction and their files in batches. Images touched within ORPHAN_GRACE_MS are never deleted,
+ * because a repeat scan reuses its content-addressed file before its history row is inserted.
+ */
+public final class StorageManager {
+    public static final long DEFAULT_MAX_BYTES = 200L * 1024 * 1024;
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+    private static final String IMAGE_PREFIX = "leaf_";
+    private static final long ORPHAN_GRACE_MS = 10 * 60 * 1000; // Files of a scan still being saved are not orphans yet
+    private static final int DELETE_BATCH = 50; // Entries evicted per transaction
+
+    public interface Listener {
+        // Called on the main thread once the history and its images are gone
+        void onCleared(int deletedEntries);
+    }
+
+    private static volatile StorageManager instance;
+
+    private final Context appContext;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile long maxBytes = DEFAULT_MAX_BYTES;
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private StorageManager(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static StorageManager getInstance(Context context) {
+        StorageManager manager = instance;
+        if (manager == null) {
+            synchronized (StorageManager.class) {
+                manager = instance;
+                if (manager == null) {
+                    manager = new StorageManager(context.getApplicationContext());
+                    instance = manager;
+                }
+            }
+        }
+        return manager;
+    }
+
+    // Changes the budget; takes effect on the next trim
+    public void setBudget(long maxBytes, int maxEntries) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    // Sweeps orphans and evicts entries over budget in the background
+    public void trimAsync() {
+        executor.execute(() -> {
+            try {
+                trim();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Deletes every history entry and scan image in the background
+    public void clearAsync(Listener listener) {
+        executor.execute(() -> {
+            int deleted = 0;
+            try {
+                deleted = HistoryRepository.getInstance(appContext).clear();
+                // Recently touched images may belong to a scan still being saved; a later trim sweeps them
+                deleteFiles(settledOnly(listImages()));
+                ThumbnailCache.getInstance(appContext).clear();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            int result = deleted;
+            mainHandler.post(() -> listener.onCleared(result));
+        });
+    }
+
+    private void trim() {
+        HistoryRepository repository = HistoryRepository.getInstance(appContext);
+
+        // Orphan sweep: images no entry points at, older than the grace period
+        Set<String> referenced = repository.getReferencedPaths();
+        List<File> orphans = new ArrayList<>();
+        for (File file : listImages()) {
+            if (!referenced.contains(file.getAbsolutePath())) orphans.add(file);
+        }
+        deleteFiles(settledOnly(orphans));
+
+        // Budget: evict from the front of the LRU order until both limits hold. Files are shared
+        // between repeat scans, so their bytes only come back once the last reference is evicted
+        List<HistoryItem> entries = repository.getLeastRecentlyUsed();
+        Map<String, Integer> refCounts = new HashMap<>();
+        for (HistoryItem item : entries) {
+            for (String path : pathsOf(item)) refCounts.merge(path, 1, Integer::sum);
+        }
+        long totalBytes = 0;
+        for (String path : refCounts.keySet()) totalBytes += new File(path).length();
+        int remaining = entries.size();
+
+        List<HistoryItem> batch = new ArrayList<>(DELETE_BATCH);
+        for (HistoryItem item : entries) {
+            if (totalBytes <= maxBytes && remaining <= maxEntries) break;
+            for (String path : pathsOf(item)) {
+                if (refCounts.merge(path, -1, Integer::sum) == 0) totalBytes -= new File(path).length();
+            }
+            remaining--;
+            batch.add(item);
+            if (batch.size() == DELETE_BATCH) {
+                evict(repository, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) evict(repository, batch);
+    }
+
+    // Removes the rows first so the list never shows an entry whose image is gone. Images are
+    // content-addressed and shared, so a file is only deleted once no remaining entry references it
+    // and no scan in progress has just reused it
+    private void evict(HistoryRepository repository, List<HistoryItem> batch) {
+        repository.delete(batch);
+        Set<String> stillReferenced = repository.getReferencedPaths();
+        ThumbnailCache thumbnails = ThumbnailCache.getInstance(appContext);
+        Set<String> released = new HashSet<>();
+        for (HistoryItem item : batch) released.addAll(pathsOf(item));
+        released.removeAll(stillReferenced);
+
+        List<File> files = new ArrayList<>(released.size());
+        for (String path : released) files.add(new File(path));
+        for (File file : settledOnly(files)) {
+            thumbnails.remove(file.getAbsolutePath());
+            file.delete();
+        }
+    }
+
+    // Files not modified within the grace period; saveScanImage refreshes the time of a reused file
+    private static List<File> settledOnly(List<File> files) {
+        long cutoff = System.currentTimeMillis() - ORPHAN_GRACE_MS;
+        List<File> settled = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (file.lastModified() < cutoff) settled.add(file);
+        }
+        return settled;
+    }
+
+    private List<File> listImages() {
+        List<File> images = new ArrayList<>();
+        File[] files = appContext.getFilesDir().listFiles();
+        if (files == null) return images;
+        for (File f : files) {
+            if (f.getName().startsWith(IMAGE_PREFIX)) images.add(f);
+        }
+        return images;
+    }
+
+    private static List<String> pathsOf(HistoryItem item) {
+        List<String> paths = new ArrayList<>(2);
+        if (item.getGradCamPath() != null) paths.add(item.getGradCamPath());
+        if (item.getImagePath() != null && !item.getImagePath().equals(item.getGradCamPath())) {
+            paths.add(item.getImagePath());
+        }
+        return paths;
+    }
+
+    private static void deleteFiles(List<File> files) {
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.leafsmart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared text normalisation for the search and question-answering indexes.
+ * Lower-cases and turns everything that is not a letter or digit into a single space, so labels
+ * like "Apple___Apple_scab" and free text tokenize the same way.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {}
+
+    // Lower-cased tokens joined by single spaces, without leading or trailing space
+    public static String normalize(CharSequence text) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && out.length() > 0) out.append(' ');
+                out.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return out.toString();
+    }
+
+    // Tokens of already normalised text
+    public static List<String> split(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= normalized.length(); i++) {
+            if (i == normalized.length() || normalized.charAt(i) == ' ') {
+                if (i > start) tokens.add(normalized.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> tokenize(CharSequence text) {
+        return split(normalize(text));
+    }
+}
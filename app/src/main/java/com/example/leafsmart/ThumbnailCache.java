@@ -0,0 +1,144 @@
+package com.example.leafsmart;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-level cache of small previews for history images.
+ * Thumbnails are kept in a memory LruCache sized from the heap and as small WebP files on disk,
+ * written when a scan is saved. Misses are decoded on a small bounded pool, subsampled from the
+ * full image if the disk copy is missing.
+ */
+public final class ThumbnailCache {
+    public static final int THUMBNAIL_SIZE = 192; // Longest side in pixels
+    private static final String DISK_DIR = "thumbs";
+    private static final int DECODE_THREADS = 2;
+    private static final int MAX_PENDING = 32; // Oldest requests (rows scrolled away) are dropped beyond this
+
+    private static volatile ThumbnailCache instance;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final File diskDir;
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ThumbnailCache(Context appContext) {
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8); // 1/8 of the heap
+        memoryCache = new LruCache<String, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+        diskDir = new File(appContext.getCacheDir(), DISK_DIR);
+        executor = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING), new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ThumbnailCache getInstance(Context context) {
+        ThumbnailCache cache = instance;
+        if (cache == null) {
+            synchronized (ThumbnailCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new ThumbnailCache(context.getApplicationContext());
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    // Writes the thumbnail of a freshly saved image; call off the main thread
+    public void storeThumbnail(String imagePath, Bitmap fullImage) {
+        Bitmap thumbnail = ImageLoader.scaleWithin(fullImage, THUMBNAIL_SIZE);
+        memoryCache.put(imagePath, thumbnail);
+        writeToDisk(imagePath, thumbnail);
+    }
+
+    // Thumbnail already in memory, or null
+    public Bitmap getCached(String imagePath) {
+        return imagePath == null ? null : memoryCache.get(imagePath);
+    }
+
+    // Shows the thumbnail of imagePath in target, decoding it in the background on a miss
+    public void load(String imagePath, ImageView target) {
+        target.setTag(imagePath); // Lets a late result detect that the view was rebound
+        Bitmap cached = getCached(imagePath);
+        target.setImageBitmap(cached);
+        if (cached != null || imagePath == null) return;
+
+        executor.execute(() -> {
+            Bitmap thumbnail = loadBlocking(imagePath);
+            mainHandler.post(() -> {
+                // The row may have been recycled for another entry meanwhile
+                if (thumbnail != null && imagePath.equals(target.getTag())) {
+                    target.setImageBitmap(thumbnail);
+                }
+            });
+        });
+    }
+
+    // Memory, then disk, then a subsampled decode of the full image (which also fills the disk cache)
+    public Bitmap loadBlocking(String imagePath) {
+        Bitmap thumbnail = memoryCache.get(imagePath);
+        if (thumbnail != null) return thumbnail;
+
+        File diskFile = diskFile(imagePath);
+        if (diskFile.exists()) {
+            thumbnail = BitmapFactory.decodeFile(diskFile.getAbsolutePath());
+        }
+        if (thumbnail == null && new File(imagePath).exists()) {
+            Bitmap sampled = ImageLoader.decodeSampledFile(imagePath, THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+            if (sampled != null) {
+                thumbnail = ImageLoader.scaleWithin(sampled, THUMBNAIL_SIZE);
+                writeToDisk(imagePath, thumbnail);
+            }
+        }
+        if (thumbnail != null) {
+            memoryCache.put(imagePath, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    // Drops the cached thumbnail of one image
+    public void remove(String imagePath) {
+        memoryCache.remove(imagePath);
+        diskFile(imagePath).delete();
+    }
+
+    // Drops every cached thumbnail
+    public void clear() {
+        memoryCache.evictAll();
+        File[] files = diskDir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+    }
+
+    private void writeToDisk(String imagePath, Bitmap thumbnail) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) return;
+        try (FileOutputStream out = new FileOutputStream(diskFile(imagePath))) {
+            thumbnail.compress(Bitmap.CompressFormat.WEBP_LOSSY, 80, out);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private File diskFile(String imagePath) {
+        return new File(diskDir, new File(imagePath).getName() + ".webp");
+    }
+}
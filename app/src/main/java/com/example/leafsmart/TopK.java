@@ -0,0 +1,59 @@
+package com.example.leafsmart;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Allocation-free top-K selection over class scores.
+ * Keeps a small sorted window of the best scores in the caller's arrays, so one pass over
+ * n classes costs O(n) for a fixed k and nothing is boxed.
+ */
+public final class TopK {
+
+    private TopK() {}
+
+    // Writes the k highest scores >= minScore into outIndices/outScores, best first; returns how many
+    public static int select(float[] scores, int count, int k, float minScore,
+                             int[] outIndices, float[] outScores) {
+        checkOutputs(k, outIndices, outScores);
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            found = offer(i, scores[i], found, k, minScore, outIndices, outScores);
+        }
+        return found;
+    }
+
+    // Same as above for a buffer such as the model's prediction output, read by absolute index
+    public static int select(FloatBuffer scores, int k, float minScore,
+                             int[] outIndices, float[] outScores) {
+        checkOutputs(k, outIndices, outScores);
+        int found = 0;
+        for (int i = 0, count = scores.limit(); i < count; i++) {
+            found = offer(i, scores.get(i), found, k, minScore, outIndices, outScores);
+        }
+        return found;
+    }
+
+    private static void checkOutputs(int k, int[] outIndices, float[] outScores) {
+        if (k > outIndices.length || k > outScores.length) {
+            throw new IllegalArgumentException("Output arrays hold " + Math.min(outIndices.length, outScores.length)
+                    + " entries, k is " + k);
+        }
+    }
+
+    // Inserts one candidate into the sorted window if it beats the current k-th score
+    private static int offer(int index, float score, int found, int k, float minScore,
+                             int[] outIndices, float[] outScores) {
+        if (k <= 0 || !(score >= minScore)) return found; // Also rejects NaN
+        if (found == k && score <= outScores[k - 1]) return found;
+
+        int pos = found < k ? found++ : k - 1;
+        while (pos > 0 && outScores[pos - 1] < score) {
+            outScores[pos] = outScores[pos - 1];
+            outIndices[pos] = outIndices[pos - 1];
+            pos--;
+        }
+        outScores[pos] = score;
+        outIndices[pos] = index;
+        return found;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the byte quantization used to store activation maps with history entries.
+ */
+public class ActivationMapCodecTest {
+
+    @Test
+    public void roundTrip_staysWithinHalfAStep() {
+        float[] map = new float[7 * 7];
+        for (int i = 0; i < map.length; i++) map[i] = i / 48f;
+
+        float[] restored = ActivationMapCodec.dequantize(ActivationMapCodec.quantize(map));
+
+        assertEquals(map.length, restored.length);
+        for (int i = 0; i < map.length; i++) {
+            assertEquals(map[i], restored[i], 0.5f / 255f + 1e-6f);
+        }
+    }
+
+    @Test
+    public void quantize_clampsOutOfRangeValues() {
+        byte[] bytes = ActivationMapCodec.quantize(new float[]{-0.5f, 1.7f, Float.NaN, 1f});
+
+        assertEquals(0, bytes[0] & 0xFF);
+        assertEquals(255, bytes[1] & 0xFF);
+        assertEquals(0, bytes[2] & 0xFF);
+        assertEquals(255, bytes[3] & 0xFF);
+    }
+}
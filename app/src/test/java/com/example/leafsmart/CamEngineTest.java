@@ -0,0 +1,58 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Class activation maps computed from known dense-layer weights.
+ */
+public class CamEngineTest {
+
+    private static final int CELLS = 7 * 7;
+    private static final int CHANNELS = 2;
+
+    // Channel 0 fires in the left three columns, channel 1 in the right three
+    private static FloatBuffer features() {
+        float[] features = new float[CELLS * CHANNELS];
+        for (int p = 0; p < CELLS; p++) {
+            int col = p % 7;
+            if (col < 3) features[p * CHANNELS] = 1f + col;
+            if (col > 3) features[p * CHANNELS + 1] = col - 3f;
+        }
+        return FloatBuffer.wrap(features);
+    }
+
+    @Test
+    public void differentClassesGiveDifferentMaps() {
+        float[] weights = {1f, 0f, /* class 1 */ 0f, 2f};
+        CamEngine cam = new CamEngine(weights, 2, CHANNELS);
+
+        float[][] maps = cam.computeMaps(features(), CELLS, CHANNELS, new int[]{0, 1});
+
+        assertTrue(cam.isClassSpecific());
+        assertEquals(CELLS, maps[0].length);
+        assertFalse(Arrays.equals(maps[0], maps[1]));
+        assertEquals(1f, maps[0][2], 0f); // Class 0 peaks on the left
+        assertEquals(0f, maps[0][6], 0f);
+        assertEquals(1f, maps[1][6], 0f); // Class 1 peaks on the right
+        assertEquals(0f, maps[1][2], 0f);
+        assertEquals(1f / 3f, maps[1][4], 1e-6f);
+    }
+
+    @Test
+    public void withoutWeightsEveryClassGetsTheSameMap() {
+        CamEngine cam = new CamEngine(null, 0, 0);
+
+        float[][] maps = cam.computeMaps(features(), CELLS, CHANNELS, new int[]{0, 1});
+
+        assertFalse(cam.isClassSpecific());
+        assertArrayEquals(maps[0], maps[1], 0f);
+    }
+}
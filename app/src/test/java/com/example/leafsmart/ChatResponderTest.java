@@ -0,0 +1,53 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reply selection and caching of the chatbot responder.
+ */
+public class ChatResponderTest {
+
+    private static ChatResponder responder() {
+        Map<String, String> qa = new LinkedHashMap<>();
+        qa.put("tomato early blight", "early");
+        qa.put("grape black rot", "rot");
+        qa.put("general plant care", "care");
+        return new ChatResponder(new QaRetriever(qa));
+    }
+
+    @Test
+    public void answersByKeywordsThenBySimilarity() {
+        ChatResponder responder = responder();
+        assertEquals("early", responder.answer("What about early blight on my tomato?"));
+        assertEquals("care", responder.answer("genral plnt car"));
+        assertEquals(ChatResponder.FALLBACK, responder.answer("when should I water"));
+    }
+
+    @Test
+    public void cachesRepliesByNormalisedQuestion() {
+        ChatResponder responder = responder();
+        assertNull(responder.getCached("Grape black rot"));
+
+        assertEquals("rot", responder.answer("Grape black rot"));
+        assertEquals("rot", responder.getCached("grape  BLACK rot?"));
+    }
+
+    @Test
+    public void interruptedLookupIsNotCached() {
+        ChatResponder responder = responder();
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(responder.answer("genral plnt car"));
+        } finally {
+            Thread.interrupted(); // Clear the flag for other tests
+        }
+        assertNull(responder.getCached("genral plnt car"));
+        assertEquals("care", responder.answer("genral plnt car"));
+    }
+}
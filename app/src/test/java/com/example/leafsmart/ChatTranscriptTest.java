@@ -0,0 +1,53 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Ordering and eviction of the bounded chat transcript.
+ */
+public class ChatTranscriptTest {
+
+    @Test
+    public void keepsMessagesInOrderUntilFull() {
+        ChatTranscript transcript = new ChatTranscript(3);
+        assertFalse(transcript.add(new ChatMessage("hi", true)));
+        assertFalse(transcript.add(new ChatMessage("hello", false)));
+
+        assertEquals(2, transcript.size());
+        assertEquals("hi", transcript.get(0).getText());
+        assertTrue(transcript.get(0).isFromUser());
+        assertFalse(transcript.get(1).isFromUser());
+    }
+
+    @Test
+    public void dropsOldestOnceFull() {
+        ChatTranscript transcript = new ChatTranscript(3);
+        for (int i = 0; i < 3; i++) assertFalse(transcript.add(new ChatMessage("m" + i, i % 2 == 0)));
+        for (int i = 3; i < 8; i++) assertTrue(transcript.add(new ChatMessage("m" + i, i % 2 == 0)));
+
+        List<ChatMessage> kept = transcript.toList();
+        assertEquals(3, kept.size());
+        assertEquals("m5", kept.get(0).getText());
+        assertEquals("m6", kept.get(1).getText());
+        assertEquals("m7", kept.get(2).getText());
+    }
+
+    @Test
+    public void rejectsPositionsPastTheEnd() {
+        ChatTranscript transcript = new ChatTranscript(2);
+        transcript.add(new ChatMessage("only", true));
+        boolean rejected = false;
+        try {
+            transcript.get(1);
+        } catch (IndexOutOfBoundsException e) {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}
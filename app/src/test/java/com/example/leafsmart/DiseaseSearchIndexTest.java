@@ -0,0 +1,69 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matching, ranking and incremental narrowing of the disease search index.
+ */
+public class DiseaseSearchIndexTest {
+
+    private static final List<Disease> CATALOGUE = Arrays.asList(
+            disease(0, "Apple___Apple_scab", "Olive-green spots on leaves.", "Apply fungicide early."),
+            disease(1, "Apple___Black_rot", "Purple spots; leaves rot.", "Prune cankers."),
+            disease(2, "Tomato___Leaf_Mold", "Yellow spots, mold underneath.", "Reduce humidity."),
+            disease(3, "Tomato___healthy", "None", "None"));
+
+    @Test
+    public void emptyQueryReturnsCatalogueOrder() {
+        DiseaseSearchIndex index = new DiseaseSearchIndex(CATALOGUE);
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.searchIds("  "));
+    }
+
+    @Test
+    public void nameMatchesRankAboveSymptomMatches() {
+        DiseaseSearchIndex index = new DiseaseSearchIndex(CATALOGUE);
+        // "mold" is in disease 2's name and symptoms only
+        assertArrayEquals(new int[]{2}, index.searchIds("mold"));
+        // "leaf" is disease 2's name; "leaves" (prefix match) are symptoms of 0 and 1
+        assertArrayEquals(new int[]{2, 0, 1}, index.searchIds("lea"));
+    }
+
+    @Test
+    public void matchesPrefixesAndInsideWords() {
+        DiseaseSearchIndex index = new DiseaseSearchIndex(CATALOGUE);
+        assertArrayEquals(new int[]{0}, index.searchIds("fungi"));
+        assertArrayEquals(new int[]{0}, index.searchIds("gicide"));
+        assertArrayEquals(new int[0], index.searchIds("blight"));
+    }
+
+    @Test
+    public void everyWordMustMatch() {
+        DiseaseSearchIndex index = new DiseaseSearchIndex(CATALOGUE);
+        assertArrayEquals(new int[]{0, 1}, index.searchIds("apple spots"));
+        assertArrayEquals(new int[]{1}, index.searchIds("apple purple"));
+    }
+
+    @Test
+    public void incrementalQueriesMatchFreshSearches() {
+        DiseaseSearchIndex typed = new DiseaseSearchIndex(CATALOGUE);
+        String query = "tomato leaf mold";
+        for (int i = 1; i <= query.length(); i++) {
+            String prefix = query.substring(0, i);
+            int[] expected = new DiseaseSearchIndex(CATALOGUE).searchIds(prefix);
+            assertArrayEquals(prefix, expected, typed.searchIds(prefix));
+        }
+        // Deleting characters widens the results again
+        assertEquals(2, typed.search("tom").size());
+        assertEquals(4, typed.search("").size());
+    }
+
+    private static Disease disease(int index, String label, String symptoms, String treatment) {
+        return new Disease(index, label, "", symptoms, treatment, "", "", false);
+    }
+}
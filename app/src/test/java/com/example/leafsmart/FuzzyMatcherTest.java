@@ -0,0 +1,124 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Bounded edit distances and best-candidate lookup of FuzzyMatcher, checked against the full table.
+ */
+public class FuzzyMatcherTest {
+
+    @Test
+    public void distanceMatchesFullTableWithinBound() {
+        FuzzyMatcher matcher = new FuzzyMatcher(Collections.<String>emptyList(), 0.6);
+        Random random = new Random(7);
+        for (int trial = 0; trial < 2000; trial++) {
+            // Lengths on both sides of 64 exercise the bit-parallel and the banded paths
+            String a = randomString(random, random.nextInt(trial % 2 == 0 ? 20 : 90));
+            String b = mutate(random, a, random.nextInt(8));
+            int maxEdits = random.nextInt(10);
+            int expected = levenshtein(a, b);
+            int actual = matcher.distance(a, b, maxEdits);
+            if (expected <= maxEdits) {
+                assertEquals(a + " / " + b, expected, actual);
+            } else {
+                assertTrue(a + " / " + b, actual > maxEdits);
+            }
+        }
+    }
+
+    @Test
+    public void handlesNonAsciiAndEmptyStrings() {
+        FuzzyMatcher matcher = new FuzzyMatcher(Collections.<String>emptyList(), 0.6);
+        assertEquals(1, matcher.distance("tomate", "tomaté", 3));
+        assertEquals(3, matcher.distance("", "abc", 3));
+        assertEquals(3, matcher.distance("abc", "", 3));
+    }
+
+    @Test
+    public void findsMostSimilarCandidate() {
+        FuzzyMatcher matcher = new FuzzyMatcher(
+                Arrays.asList("tomato late blight", "tomato early blight", "potato early blight"), 0.6);
+
+        FuzzyMatcher.Result result = matcher.findBest("tomatoe erly blite");
+        assertEquals(1, result.getIndex());
+        assertEquals(1f - (float) levenshtein("tomatoe erly blite", "tomato early blight") / 19, result.getSimilarity(), 1e-6f);
+        assertNull(matcher.findBest("how often should i water"));
+    }
+
+    @Test
+    public void agreesWithExhaustiveSearch() {
+        String[] keys = {"apple scab", "black rot apple", "cedar apple rust", "corn rust", "corn common rust",
+                "grape black rot", "grape esca", "healthy plant", "general plant care"};
+        FuzzyMatcher matcher = new FuzzyMatcher(Arrays.asList(keys), 0.6);
+        Random random = new Random(11);
+        for (int trial = 0; trial < 500; trial++) {
+            String query = mutate(random, keys[random.nextInt(keys.length)], random.nextInt(7));
+            int best = -1;
+            double bestSimilarity = 0.0;
+            for (int i = 0; i < keys.length; i++) {
+                int maxLen = Math.max(query.length(), keys[i].length());
+                double similarity = 1.0 - (double) levenshtein(query, keys[i]) / maxLen;
+                if (similarity > bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = i;
+                }
+            }
+            FuzzyMatcher.Result result = matcher.findBest(query);
+            if (bestSimilarity >= 0.6) {
+                assertEquals(query, best, result.getIndex());
+            } else {
+                assertNull(result);
+            }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + random.nextInt(6)));
+        return sb.toString();
+    }
+
+    // Applies random substitutions, insertions and deletions
+    private static String mutate(Random random, String s, int edits) {
+        StringBuilder sb = new StringBuilder(s);
+        for (int e = 0; e < edits; e++) {
+            int op = random.nextInt(3);
+            int pos = random.nextInt(sb.length() + 1);
+            char c = (char) ('a' + random.nextInt(6));
+            if (op == 0 && pos < sb.length()) {
+                sb.setCharAt(pos, c);
+            } else if (op == 1 || sb.length() == 0) {
+                sb.insert(pos, c);
+            } else if (pos < sb.length()) {
+                sb.deleteCharAt(pos);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Reference: the full (m+1) x (n+1) table
+    private static int levenshtein(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            for (int j = 0; j <= s2.length(); j++) {
+                if (i == 0) {
+                    dp[i][j] = j;
+                } else if (j == 0) {
+                    dp[i][j] = i;
+                } else {
+                    int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                    dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+}
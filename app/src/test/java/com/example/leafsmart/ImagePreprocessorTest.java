@@ -0,0 +1,87 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks the fused area-average resize + normalise stage against straightforward references.
+ */
+public class ImagePreprocessorTest {
+
+    @Test
+    public void uniformColour_isNormalisedPerChannel() throws Exception {
+        FloatBuffer out = FloatBuffer.allocate(4 * 4 * 3);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(4, 4, out);
+        int[] src = filled(10 * 6, 0xFF336699);
+
+        preprocessor.process(src, 10, 6);
+
+        for (int i = 0; i < 16; i++) {
+            assertEquals(0x33 / 255f, out.get(i * 3), 1e-6f);
+            assertEquals(0x66 / 255f, out.get(i * 3 + 1), 1e-6f);
+            assertEquals(0x99 / 255f, out.get(i * 3 + 2), 1e-6f);
+        }
+    }
+
+    @Test
+    public void halving_averagesEachTwoByTwoBlock() throws Exception {
+        FloatBuffer out = FloatBuffer.allocate(3);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(1, 1, out);
+        int[] src = {0xFF000000, 0xFFFF0000, 0xFF00FF00, 0xFF0000FF};
+
+        preprocessor.process(src, 2, 2);
+
+        assertEquals(255f / 4 / 255f, out.get(0), 1e-6f);
+        assertEquals(255f / 4 / 255f, out.get(1), 1e-6f);
+        assertEquals(255f / 4 / 255f, out.get(2), 1e-6f);
+    }
+
+    @Test
+    public void upscaling_repeatsNearestSourcePixel() throws Exception {
+        FloatBuffer out = FloatBuffer.allocate(4 * 4 * 3);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(4, 4, out);
+        int[] src = {0xFFFF0000, 0xFF0000FF, 0xFF00FF00, 0xFFFFFFFF};
+
+        preprocessor.process(src, 2, 2);
+
+        assertEquals(1f, out.get(0), 1e-6f); // (0,0) red
+        assertEquals(1f, out.get((3 * 4 + 3) * 3 + 1), 1e-6f); // (3,3) white
+        assertEquals(0f, out.get((0 * 4 + 3) * 3), 1e-6f); // (0,3) blue has no red
+    }
+
+    @Test
+    public void bandedProcessing_matchesSingleThreaded() throws Exception {
+        int size = 224;
+        int srcWidth = 641, srcHeight = 479;
+        int[] src = new int[srcWidth * srcHeight];
+        for (int i = 0; i < src.length; i++) src[i] = 0xFF000000 | ((i * 7919) & 0xFFFFFF);
+
+        FloatBuffer serialOut = FloatBuffer.allocate(size * size * 3);
+        new ImagePreprocessor(size, size, serialOut).process(src, srcWidth, srcHeight);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            FloatBuffer bandedOut = FloatBuffer.allocate(size * size * 3);
+            ImagePreprocessor banded = new ImagePreprocessor(size, size, bandedOut, executor, 4);
+            banded.process(src, srcWidth, srcHeight);
+            banded.close();
+            for (int i = 0; i < size * size * 3; i++) {
+                assertEquals(serialOut.get(i), bandedOut.get(i), 0f);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int[] filled(int count, int colour) {
+        int[] pixels = new int[count];
+        Arrays.fill(pixels, colour);
+        return pixels;
+    }
+}
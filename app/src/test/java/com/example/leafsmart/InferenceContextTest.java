@@ -0,0 +1,116 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks that the steady-state inference path reuses its buffers instead of allocating.
+ */
+public class InferenceContextTest {
+
+    private static final int[] INPUT_SHAPE = {1, 224, 224, 3};
+    private static final int[] FEATURE_SHAPE = {1, 7, 7, 1280};
+    private static final int[] PREDICTION_SHAPE = {1, 38};
+
+    // Stand-in for the interpreter: writes a fixed pattern into the output buffers
+    private static final InferenceContext.ModelRunner FAKE_MODEL = (inputs, outputs) -> fillOutputs(outputs);
+
+    private static void fillOutputs(Map<Integer, Object> outputs) {
+        ByteBuffer features = (ByteBuffer) outputs.get(InferenceEngine.FEATURE_OUTPUT);
+        ByteBuffer predictions = (ByteBuffer) outputs.get(InferenceEngine.PREDICTION_OUTPUT);
+        while (features.remaining() >= 4) features.putFloat(1f);
+        int i = 0;
+        while (predictions.remaining() >= 4) predictions.putFloat(i++ / 100f);
+    }
+
+    @Test
+    public void preprocess_writesRgbScaledToUnitRange() throws Exception {
+        InferenceContext context = new InferenceContext(INPUT_SHAPE, FEATURE_SHAPE, PREDICTION_SHAPE);
+        context.obtainSourcePixels(224, 224)[0] = 0xFFFF8000;
+        context.preprocess(224, 224);
+
+        assertEquals(1f, context.getInput().get(0), 1e-6f);
+        assertEquals(128 / 255f, context.getInput().get(1), 1e-6f);
+        assertEquals(0f, context.getInput().get(2), 1e-6f);
+    }
+
+    @Test
+    public void run_exposesOutputsThroughFloatViews() throws Exception {
+        InferenceContext context = new InferenceContext(INPUT_SHAPE, FEATURE_SHAPE, PREDICTION_SHAPE);
+        context.run(FAKE_MODEL);
+
+        assertEquals(7 * 7 * 1280, context.getFeatures().capacity());
+        assertEquals(1f, context.getFeatures().get(7 * 7 * 1280 - 1), 0f);
+        assertEquals(0.37f, context.getPredictions().get(37), 1e-6f);
+    }
+
+    @Test
+    public void steadyStateScan_allocatesNothing() throws Exception {
+        InferenceContext context = new InferenceContext(INPUT_SHAPE, FEATURE_SHAPE, PREDICTION_SHAPE);
+        assertScansAllocateNothing(context, new CopyOnWriteArrayList<>());
+    }
+
+    @Test
+    public void steadyStateBandedScan_allocatesNothingOnAnyThread() throws Exception {
+        // Same setup as InferenceEngine: bandCount - 1 pool threads, recorded so they can be measured too
+        List<Thread> workers = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable);
+            workers.add(thread);
+            return thread;
+        });
+        InferenceContext context = new InferenceContext(INPUT_SHAPE, FEATURE_SHAPE, PREDICTION_SHAPE, executor, 4);
+        try {
+            assertScansAllocateNothing(context, workers);
+            assertEquals(3, workers.size());
+        } finally {
+            context.close();
+            executor.shutdown();
+        }
+    }
+
+    private static void assertScansAllocateNothing(InferenceContext context, List<Thread> workers) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Warm up so class loading and JIT compilation are not counted
+        for (int i = 0; i < 50; i++) scan(context);
+
+        int scans = 200;
+        long before = allocatedBytes(threads, workers);
+        for (int i = 0; i < scans; i++) scan(context);
+        long allocated = allocatedBytes(threads, workers) - before;
+
+        // A single per-scan buffer would be hundreds of KB; allow only measurement noise
+        assertTrue("Allocated " + allocated + " bytes over " + scans + " scans", allocated < scans);
+    }
+
+    // Bytes allocated so far by the calling thread and the given worker threads
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads, List<Thread> workers) {
+        long total = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < workers.size(); i++) { // Indexed, so the measurement itself allocates nothing
+            total += threads.getThreadAllocatedBytes(workers.get(i).getId());
+        }
+        return total;
+    }
+
+    private static void scan(InferenceContext context) throws Exception {
+        int[] pixels = context.obtainSourcePixels(448, 448);
+        for (int p = 0; p < 448 * 448; p++) pixels[p] = 0xFF000000 | p;
+        context.preprocess(448, 448);
+        context.run(FAKE_MODEL);
+        float sum = 0f;
+        for (int c = 0; c < context.getNumClasses(); c++) sum += context.getPredictions().get(c);
+        assertTrue(sum > 0f);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the knowledge.pack that the compileKnowledgePack Gradle task generates from the assets,
+ * and checks it against the source JSON. Gradle passes the pack's path in the knowledgePack property.
+ */
+public class KnowledgePackTest {
+
+    private static final String ASSETS = "src/main/assets/";
+
+    @Test
+    public void readsEveryClassFromTheAssets() throws IOException {
+        KnowledgePack pack = generatedPack();
+        List<String> labels = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(ASSETS + "labels.txt"), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) labels.add(line.trim());
+        }
+        Map<String, Map<String, Object>> diseases = readJson("diseases.json",
+                new TypeToken<Map<String, Map<String, Object>>>() {});
+
+        assertEquals(labels.size(), pack.getClassCount());
+        for (int i = 0; i < labels.size(); i++) {
+            String label = labels.get(i);
+            Map<String, Object> entry = diseases.get(label);
+            assertEquals(label, pack.getLabel(i));
+            assertEquals(entry.get("description"), pack.getDescription(i));
+            assertEquals(entry.get("symptoms"), pack.getSymptoms(i));
+            assertEquals(entry.get("treatment"), pack.getTreatment(i));
+            assertEquals(entry.get("tips"), pack.getTips(i));
+            // No entry overrides crop or healthy, so both come from the Crop___Condition label
+            assertEquals(label.substring(0, label.indexOf("___")).replace('_', ' '), pack.getCrop(i));
+            assertEquals(label.endsWith("___healthy"), pack.isHealthy(i));
+        }
+    }
+
+    @Test
+    public void readsEveryAnswerInFileOrder() throws IOException {
+        KnowledgePack pack = generatedPack();
+        Map<String, String> qa = readJson("plant_qa.json", new TypeToken<Map<String, String>>() {});
+
+        assertEquals(qa.size(), pack.getQaCount());
+        int i = 0;
+        for (Map.Entry<String, String> entry : qa.entrySet()) {
+            assertEquals(entry.getKey(), pack.getQuestion(i));
+            assertEquals(entry.getValue(), pack.getAnswer(i)); // Some answers hold non-ASCII text, e.g. dashes
+            i++;
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() {
+        ByteBuffer notAPack = ByteBuffer.wrap("{\"json\": true, \"padding\": 0}".getBytes(StandardCharsets.UTF_8));
+        boolean rejected = false;
+        try {
+            new KnowledgePack(notAPack);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+
+    private static KnowledgePack generatedPack() throws IOException {
+        String path = System.getProperty("knowledgePack");
+        assertNotNull("knowledgePack property not set; run the tests through Gradle", path);
+        return new KnowledgePack(ByteBuffer.wrap(Files.readAllBytes(new File(path).toPath())));
+    }
+
+    private static <T> T readJson(String asset, TypeToken<T> type) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(ASSETS + asset), StandardCharsets.UTF_8)) {
+            return new Gson().fromJson(reader, type.getType());
+        }
+    }
+}
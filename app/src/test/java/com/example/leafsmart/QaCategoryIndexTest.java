@@ -0,0 +1,48 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grouping of the chatbot's stored questions into quick-access categories.
+ */
+public class QaCategoryIndexTest {
+
+    private static final List<String> KEYS = Arrays.asList(
+            "apple scab", "tomato late blight", "preventive care tips", "healthy plant",
+            "tomato diseases", "show tomato diseases");
+
+    @Test
+    public void groupsKeysInFileOrderAndSkipsEmptyCategories() {
+        List<QaCategoryIndex.Category> categories = new QaCategoryIndex(KEYS).getCategories();
+
+        assertEquals(5, categories.size()); // Apple, Tomato, General Care, Tips & Healthy, Show Commands
+        assertEquals("🍅 Tomato", categories.get(0).getTitle());
+        assertEquals(Arrays.asList("tomato late blight", "tomato diseases", "show tomato diseases"),
+                categories.get(0).getKeys());
+        assertEquals(Arrays.asList("apple scab"), categories.get(1).getKeys());
+        assertEquals("🧬 Show Commands", categories.get(4).getTitle());
+    }
+
+    @Test
+    public void keyMatchingSeveralKeywordsIsListedOnce() {
+        String[][] groups = {{"Tips & Healthy", "tips", "healthy", "plant"}};
+        List<QaCategoryIndex.Category> categories = new QaCategoryIndex(groups, KEYS).getCategories();
+
+        assertEquals(Arrays.asList("preventive care tips", "healthy plant"), categories.get(0).getKeys());
+    }
+
+    @Test
+    public void keywordsMatchInsideWords() {
+        String[][] groups = {{"Blights", "blight"}, {"Unused", "mildew"}};
+        List<QaCategoryIndex.Category> categories = new QaCategoryIndex(groups,
+                Arrays.asList("Tomato Late-Blight", "corn rust")).getCategories();
+
+        assertEquals(1, categories.size());
+        assertEquals(Arrays.asList("Tomato Late-Blight"), categories.get(0).getKeys());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BM25 ranking and confidence of the chatbot's question index.
+ */
+public class QaRetrieverTest {
+
+    private static QaRetriever retriever() {
+        Map<String, String> qa = new LinkedHashMap<>();
+        qa.put("tomato late blight", "late");
+        qa.put("tomato early blight", "early");
+        qa.put("potato early blight", "potato");
+        qa.put("tomato bacterial spot", "spot");
+        qa.put("tomato diseases", "list");
+        qa.put("show tomato diseases", "show");
+        return new QaRetriever(qa);
+    }
+
+    @Test
+    public void picksBestRankedEntryNotFirstMatch() {
+        // The old first-match scan answered "tomato late blight" here
+        QaRetriever.Match match = retriever().find("how do I treat early blight on tomato?");
+        assertEquals("tomato early blight", match.getKey());
+        assertEquals("early", match.getAnswer());
+        assertEquals(1f, match.getConfidence(), 1e-6f);
+    }
+
+    @Test
+    public void exactQuickButtonTextWins() {
+        QaRetriever retriever = retriever();
+        assertEquals("show", retriever.find("show tomato diseases").getAnswer());
+        assertEquals("list", retriever.find("Tomato diseases").getAnswer());
+    }
+
+    @Test
+    public void partialWordsCountLess() {
+        QaRetriever retriever = retriever();
+        QaRetriever.Match partial = retriever.find("tomatoes bacteri spots");
+        assertEquals("tomato bacterial spot", partial.getKey());
+        assertTrue(partial.getConfidence() < 1f);
+        assertTrue(partial.getConfidence() >= 0.5f);
+    }
+
+    @Test
+    public void confidenceReflectsCoverage() {
+        QaRetriever.Match match = retriever().find("blight");
+        assertTrue(match.getConfidence() < 0.5f);
+        assertNull(retriever().find("watering schedule"));
+        assertNull(new QaRetriever(new LinkedHashMap<String, String>()).find("tomato"));
+    }
+}
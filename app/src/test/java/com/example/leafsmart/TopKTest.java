@@ -0,0 +1,96 @@
+package com.example.leafsmart;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Checks the primitive top-K selection against a full sort.
+ */
+public class TopKTest {
+
+    @Test
+    public void select_returnsBestScoresInDescendingOrder() {
+        float[] scores = {0.1f, 0.5f, 0.05f, 0.3f, 0.05f};
+        int[] indices = new int[3];
+        float[] best = new float[3];
+
+        int found = TopK.select(scores, scores.length, 3, 0f, indices, best);
+
+        assertEquals(3, found);
+        assertArrayEquals(new int[]{1, 3, 0}, indices);
+        assertArrayEquals(new float[]{0.5f, 0.3f, 0.1f}, best, 0f);
+    }
+
+    @Test
+    public void select_appliesMinimumScore() {
+        float[] scores = {0.02f, 0.9f, 0.04f, 0.04f};
+        int[] indices = new int[3];
+        float[] best = new float[3];
+
+        int found = TopK.select(scores, scores.length, 3, 0.03f, indices, best);
+
+        assertEquals(3, found);
+        assertArrayEquals(new int[]{1, 2, 3}, indices); // Ties keep class order
+        assertEquals(1, TopK.select(scores, scores.length, 3, 0.5f, indices, best));
+        assertEquals(1, indices[0]);
+    }
+
+    @Test
+    public void select_matchesSortOnLargeFloatBuffer() {
+        Random random = new Random(42);
+        int classes = 700;
+        FloatBuffer scores = FloatBuffer.allocate(classes);
+        Integer[] order = new Integer[classes];
+        for (int i = 0; i < classes; i++) {
+            scores.put(i, random.nextFloat());
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -scores.get(i)));
+
+        int k = 10;
+        int[] indices = new int[k];
+        float[] best = new float[k];
+        assertEquals(k, TopK.select(scores, k, 0f, indices, best));
+        for (int i = 0; i < k; i++) {
+            assertEquals((int) order[i], indices[i]);
+            assertEquals(scores.get(order[i]), best[i], 0f);
+        }
+    }
+
+    @Test
+    public void select_returnsNothingForZeroK() {
+        float[] scores = {0.2f, 0.8f};
+        assertEquals(0, TopK.select(scores, scores.length, 0, 0f, new int[0], new float[0]));
+        assertEquals(0, TopK.select(FloatBuffer.wrap(scores), 0, 0f, new int[0], new float[0]));
+    }
+
+    @Test
+    public void select_returnsEveryClassWhenKExceedsClassCount() {
+        float[] scores = {0.2f, 0.7f, 0.1f};
+        int[] indices = new int[5];
+        float[] best = new float[5];
+
+        assertEquals(3, TopK.select(scores, scores.length, 5, 0f, indices, best));
+        assertArrayEquals(new int[]{1, 0, 2, 0, 0}, indices);
+    }
+
+    @Test
+    public void select_rejectsOutputsShorterThanK() {
+        float[] scores = {0.2f, 0.7f, 0.1f};
+        boolean rejected = false;
+        try {
+            TopK.select(scores, scores.length, 3, 0f, new int[2], new float[3]);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}